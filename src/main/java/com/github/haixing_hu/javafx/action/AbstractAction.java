@@ -15,6 +15,7 @@
  *
  */package com.github.haixing_hu.javafx.action;
 
+import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
@@ -25,9 +26,12 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.ContentDisplay;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCombination;
 
 import javax.annotation.Nullable;
@@ -39,6 +43,11 @@ import javax.annotation.Nullable;
  */
 public abstract class AbstractAction implements IAction {
 
+  /**
+   * The default size of the icons of actions.
+   */
+  public static final double DEFAULT_ICON_SIZE = 16;
+
   protected int options;
   protected String id;
   protected String buttonId;
@@ -48,10 +57,12 @@ public abstract class AbstractAction implements IAction {
   protected StringProperty style;
   protected ObjectProperty<KeyCombination> accelerator;
   protected ObjectProperty<Node> graphic;
+  protected StringProperty icon;
+  protected DoubleProperty iconSize;
   protected ObjectProperty<Pos> alignment;
   protected ObjectProperty<ContentDisplay> contentDisplay;
   protected DoubleProperty graphicTextGap;
-//  protected BooleanProperty disable;
+  protected BooleanProperty disable;
   protected BooleanProperty visible;
   protected BooleanProperty managed;
   protected BooleanProperty mnemonicParsing;
@@ -61,6 +72,7 @@ public abstract class AbstractAction implements IAction {
   protected BooleanProperty visited;
   protected ObservableList<String> styleClass;
   protected boolean bindStyleClass;
+  protected EventHandler<ActionEvent> invoker;
 
   /**
    * Constructs an {@link AbstractAction}.
@@ -87,9 +99,12 @@ public abstract class AbstractAction implements IAction {
     style = new SimpleStringProperty(this, "style");
     accelerator = new SimpleObjectProperty<KeyCombination>(this, "accelerator");
     graphic = new SimpleObjectProperty<Node>(this, "graphic");
+    icon = new SimpleStringProperty(this, "icon");
+    iconSize = new SimpleDoubleProperty(this, "iconSize", DEFAULT_ICON_SIZE);
     alignment = new SimpleObjectProperty<Pos>(this, "alignment", Pos.CENTER_LEFT);
     contentDisplay = new SimpleObjectProperty<ContentDisplay>(this, "contentDisplay", ContentDisplay.LEFT);
     graphicTextGap = new SimpleDoubleProperty(this, "graphicTextGap", -1);
+    disable = new SimpleBooleanProperty(this, "disable", false);
     visible = new SimpleBooleanProperty(this, "visibles", true);
     managed = new SimpleBooleanProperty(this, "managed", true);
     mnemonicParsing = new SimpleBooleanProperty(this, "mnemonicParsing", true);
@@ -99,6 +114,7 @@ public abstract class AbstractAction implements IAction {
     visited = new SimpleBooleanProperty(this, "visited", false);
     styleClass = FXCollections.<String>observableArrayList();
     bindStyleClass = false;
+    invoker = ActionMetrics.getDefault().createInvoker(this);
   }
 
   @Override
@@ -212,6 +228,57 @@ public abstract class AbstractAction implements IAction {
     return graphic;
   }
 
+  @Override
+  public final String getIcon() {
+    return icon.get();
+  }
+
+  @Override
+  public final void setIcon(String icon) {
+    this.icon.set(icon);
+  }
+
+  @Override
+  public final StringProperty iconProperty() {
+    return icon;
+  }
+
+  @Override
+  public final double getIconSize() {
+    return iconSize.get();
+  }
+
+  @Override
+  public final void setIconSize(double iconSize) {
+    this.iconSize.set(iconSize);
+  }
+
+  @Override
+  public final DoubleProperty iconSizeProperty() {
+    return iconSize;
+  }
+
+  /**
+   * Creates a new graphic node displaying the icon of this action.
+   * <p>
+   * Each call returns a new {@link ImageView}, so that the graphic could be
+   * used by several controls at the same time, while the image displayed by
+   * the {@link ImageView} is shared through the default {@link IconCache}.
+   *
+   * @return a new graphic node displaying the icon of this action.
+   */
+  protected Node createIconView() {
+    final ImageView view = new ImageView();
+    view.setPreserveRatio(true);
+    view.setSmooth(true);
+    view.fitWidthProperty().bind(iconSize);
+    view.fitHeightProperty().bind(iconSize);
+    view.imageProperty().bind(Bindings.createObjectBinding(
+        () -> IconCache.getDefault().get(icon.get(), iconSize.get()),
+        icon, iconSize));
+    return view;
+  }
+
   @Override
   public final Pos getAlignment() {
     return alignment.get();
@@ -257,20 +324,20 @@ public abstract class AbstractAction implements IAction {
     return graphicTextGap;
   }
 
-//  @Override
-//  public final boolean isDisable() {
-//    return disable.get();
-//  }
-//
-//  @Override
-//  public final void setDisable(boolean disable) {
-//    this.disable.set(disable);
-//  }
-//
-//  @Override
-//  public final BooleanProperty disableProperty() {
-//    return disable;
-//  }
+  @Override
+  public final boolean isDisable() {
+    return disable.get();
+  }
+
+  @Override
+  public final void setDisable(boolean disable) {
+    this.disable.set(disable);
+  }
+
+  @Override
+  public final BooleanProperty disableProperty() {
+    return disable;
+  }
 
   @Override
   public final boolean isVisible() {
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyCombination.ModifierValue;
+import javafx.scene.input.KeyEvent;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link AcceleratorRegistry} dispatches the key events of scenes to the
+ * actions according to their accelerators.
+ * <p>
+ * The registry maintains a hash index from the accelerators to the registered
+ * actions, so that dispatching a key event costs constant time regardless of
+ * the number of registered actions. Only one key event filter is installed on
+ * each scene.
+ * <p>
+ * Only the {@link KeyCodeCombination} whose modifiers are either
+ * {@link ModifierValue#DOWN} or {@link ModifierValue#UP} could be indexed;
+ * other accelerators (e.g., the {@link javafx.scene.input.KeyCharacterCombination}
+ * or the accelerators with {@link ModifierValue#ANY} modifiers) are stored in a
+ * list and matched one by one.
+ * <p>
+ * The registry listens to the accelerator property of the registered actions,
+ * so changing the accelerator of a registered action will automatically
+ * update the index.
+ * <p>
+ * The actions losing a conflict are kept aside in their registration order.
+ * When the accelerator of the winning action is changed, or the winning action
+ * is unregistered, the earliest registered losing action with the same
+ * accelerator takes its place.
+ *
+ * @author Haixing Hu
+ */
+public final class AcceleratorRegistry {
+
+  private static final int SHIFT = 0x01;
+  private static final int CONTROL = 0x02;
+  private static final int ALT = 0x04;
+  private static final int META = 0x08;
+  private static final int MODIFIER_BITS = 4;
+
+  private static final boolean IS_MAC = System.getProperty("os.name", "")
+      .toLowerCase().startsWith("mac");
+
+  private final Map<Integer, IAction> index;
+  private final List<IAction> unindexed;
+  private final List<IAction> conflicting;
+  private final Map<IAction, AcceleratorListener> listeners;
+  private final EventHandler<KeyEvent> filter;
+  private final Logger logger;
+
+  /**
+   * Constructs an empty {@link AcceleratorRegistry}.
+   */
+  public AcceleratorRegistry() {
+    index = new HashMap<Integer, IAction>();
+    unindexed = new ArrayList<IAction>();
+    conflicting = new ArrayList<IAction>();
+    listeners = new IdentityHashMap<IAction, AcceleratorListener>();
+    filter = new EventHandler<KeyEvent>() {
+      @Override
+      public void handle(KeyEvent event) {
+        dispatch(event);
+      }
+    };
+    logger = LoggerFactory.getLogger(AcceleratorRegistry.class);
+  }
+
+  /**
+   * Registers an action to this registry.
+   * <p>
+   * If the accelerator of the action conflicts with the accelerator of another
+   * registered action, the conflict is logged and the accelerator of the new
+   * action will not be dispatched until the conflict is resolved, i.e., the
+   * previously registered action wins.
+   *
+   * @param action
+   *          the action to be registered.
+   * @return {@code true} if the action is registered without conflict;
+   *         {@code false} if the action has already been registered, or its
+   *         accelerator conflicts with another registered action.
+   */
+  public boolean register(IAction action) {
+    if (listeners.containsKey(action)) {
+      return false;
+    }
+    final AcceleratorListener listener = new AcceleratorListener(action);
+    listeners.put(action, listener);
+    action.acceleratorProperty().addListener(listener);
+    return addToIndex(action, action.getAccelerator());
+  }
+
+  /**
+   * Unregisters an action from this registry.
+   *
+   * @param action
+   *          the action to be unregistered.
+   */
+  public void unregister(IAction action) {
+    final AcceleratorListener listener = listeners.remove(action);
+    if (listener != null) {
+      action.acceleratorProperty().removeListener(listener);
+      removeFromIndex(action, action.getAccelerator());
+    }
+  }
+
+  /**
+   * Unregisters all actions from this registry.
+   */
+  public void clear() {
+    for (final Map.Entry<IAction, AcceleratorListener> entry : listeners.entrySet()) {
+      entry.getKey().acceleratorProperty().removeListener(entry.getValue());
+    }
+    listeners.clear();
+    index.clear();
+    unindexed.clear();
+    conflicting.clear();
+  }
+
+  /**
+   * Tests whether an action is registered to this registry.
+   *
+   * @param action
+   *          an action.
+   * @return {@code true} if the action is registered to this registry;
+   *         {@code false} otherwise.
+   */
+  public boolean isRegistered(IAction action) {
+    return listeners.containsKey(action);
+  }
+
+  /**
+   * Finds the registered action whose accelerator is the specified key
+   * combination.
+   *
+   * @param accelerator
+   *          a key combination.
+   * @return the registered action whose accelerator is the specified key
+   *         combination, or {@code null} if no such action.
+   */
+  @Nullable
+  public IAction find(KeyCombination accelerator) {
+    final int key = indexKey(accelerator);
+    if (key >= 0) {
+      final IAction action = index.get(key);
+      if (action != null) {
+        return action;
+      }
+    }
+    for (final IAction action : unindexed) {
+      if (accelerator.equals(action.getAccelerator())) {
+        return action;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Installs the key event filter of this registry to a scene.
+   * <p>
+   * Installing this registry to the same scene more than once has no effect.
+   * Several registries could be installed to the same scene.
+   *
+   * @param scene
+   *          the scene to be installed to.
+   */
+  public void install(Scene scene) {
+    final Map<Object, Object> properties = scene.getProperties();
+    if (! properties.containsKey(this)) {
+      properties.put(this, filter);
+      scene.addEventFilter(KeyEvent.KEY_PRESSED, filter);
+    }
+  }
+
+  /**
+   * Uninstalls the key event filter of this registry from a scene.
+   *
+   * @param scene
+   *          the scene to be uninstalled from.
+   */
+  public void uninstall(Scene scene) {
+    final Map<Object, Object> properties = scene.getProperties();
+    if (properties.remove(this) != null) {
+      scene.removeEventFilter(KeyEvent.KEY_PRESSED, filter);
+    }
+  }
+
+  private void dispatch(KeyEvent event) {
+    if (event.isConsumed()) {
+      return;
+    }
+    int modifiers = 0;
+    if (event.isShiftDown()) {
+      modifiers |= SHIFT;
+    }
+    if (event.isControlDown()) {
+      modifiers |= CONTROL;
+    }
+    if (event.isAltDown()) {
+      modifiers |= ALT;
+    }
+    if (event.isMetaDown()) {
+      modifiers |= META;
+    }
+    IAction action = index.get(indexKey(event.getCode(), modifiers));
+    if ((action != null) && (! action.getAccelerator().match(event))) {
+      action = null;
+    }
+    if (action == null) {
+      for (final IAction a : unindexed) {
+        if (a.getAccelerator().match(event)) {
+          action = a;
+          break;
+        }
+      }
+    }
+    if ((action != null) && (! action.isDisable())) {
+      event.consume();
+      ActionMetrics.getDefault().invoke(action,
+          new ActionEvent(event.getSource(), event.getTarget()));
+    }
+  }
+
+  private boolean addToIndex(IAction action, @Nullable KeyCombination accelerator) {
+    if (accelerator == null) {
+      return true;
+    }
+    final IAction existing = find(accelerator);
+    if ((existing != null) && (existing != action)) {
+      logger.error("The accelerator {} of the action {} conflicts with the action {}.",
+          accelerator.getDisplayText(), action.getId(), existing.getId());
+      if (! conflicting.contains(action)) {
+        conflicting.add(action);
+      }
+      return false;
+    }
+    final int key = indexKey(accelerator);
+    if (key >= 0) {
+      index.put(key, action);
+    } else {
+      unindexed.add(action);
+    }
+    return true;
+  }
+
+  private void removeFromIndex(IAction action, @Nullable KeyCombination accelerator) {
+    if (accelerator == null) {
+      return;
+    }
+    if (conflicting.remove(action)) {
+      return;     //  the action was not dispatched
+    }
+    final int key = indexKey(accelerator);
+    final boolean removed;
+    if (key >= 0) {
+      removed = (index.get(key) == action);
+      if (removed) {
+        index.remove(key);
+      }
+    } else {
+      removed = unindexed.remove(action);
+    }
+    if (removed) {
+      promote(accelerator, key);
+    }
+  }
+
+  /**
+   * Indexes the earliest registered losing action of a resolved conflict.
+   */
+  private void promote(KeyCombination accelerator, int key) {
+    for (int i = 0; i < conflicting.size(); ++i) {
+      final IAction loser = conflicting.get(i);
+      final KeyCombination kc = loser.getAccelerator();
+      if ((kc != null) && ((key >= 0) ? (indexKey(kc) == key) : accelerator.equals(kc))) {
+        conflicting.remove(i);
+        addToIndex(loser, kc);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Computes the index key of a key combination.
+   *
+   * @param accelerator
+   *          a key combination.
+   * @return the index key of the key combination, or -1 if the key combination
+   *         could not be indexed.
+   */
+  private static int indexKey(KeyCombination accelerator) {
+    if (! (accelerator instanceof KeyCodeCombination)) {
+      return -1;
+    }
+    final ModifierValue shortcut = accelerator.getShortcut();
+    if ((shortcut == ModifierValue.ANY)
+        || (accelerator.getShift() == ModifierValue.ANY)
+        || (accelerator.getControl() == ModifierValue.ANY)
+        || (accelerator.getAlt() == ModifierValue.ANY)
+        || (accelerator.getMeta() == ModifierValue.ANY)) {
+      return -1;
+    }
+    int modifiers = 0;
+    if (accelerator.getShift() == ModifierValue.DOWN) {
+      modifiers |= SHIFT;
+    }
+    if (accelerator.getControl() == ModifierValue.DOWN) {
+      modifiers |= CONTROL;
+    }
+    if (accelerator.getAlt() == ModifierValue.DOWN) {
+      modifiers |= ALT;
+    }
+    if (accelerator.getMeta() == ModifierValue.DOWN) {
+      modifiers |= META;
+    }
+    if (shortcut == ModifierValue.DOWN) {
+      modifiers |= (IS_MAC ? META : CONTROL);
+    }
+    final KeyCode code = ((KeyCodeCombination) accelerator).getCode();
+    return indexKey(code, modifiers);
+  }
+
+  private static int indexKey(KeyCode code, int modifiers) {
+    return (code.ordinal() << MODIFIER_BITS) | modifiers;
+  }
+
+  /**
+   * Keeps the index up to date when the accelerator of a registered action
+   * changes.
+   */
+  private final class AcceleratorListener implements ChangeListener<KeyCombination> {
+
+    private final IAction action;
+
+    AcceleratorListener(IAction action) {
+      this.action = action;
+    }
+
+    @Override
+    public void changed(ObservableValue<? extends KeyCombination> observable,
+        KeyCombination oldValue, KeyCombination newValue) {
+      removeFromIndex(action, oldValue);
+      addToIndex(action, newValue);
+    }
+  }
+}
@@ -27,6 +27,7 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.RadioMenuItem;
 import javafx.scene.control.ToggleButton;
+import javafx.scene.control.ToggleGroup;
 import javafx.scene.control.Tooltip;
 
 import javax.annotation.Nullable;
@@ -139,8 +140,12 @@ public abstract class Action extends AbstractAction {
     if (style.get() != null) {
       button.styleProperty().bindBidirectional(style);
     }
-    if ((graphic.get() != null) && ((options & ActionOption.HIDE_BUTTON_GRAPHIC) == 0)) {
-      button.graphicProperty().bindBidirectional(graphic);
+    if ((options & ActionOption.HIDE_BUTTON_GRAPHIC) == 0) {
+      if (graphic.get() != null) {
+        button.graphicProperty().bindBidirectional(graphic);
+      } else if (icon.get() != null) {
+        button.setGraphic(createIconView());
+      }
     }
     if (alignment.get() != null) {
       button.alignmentProperty().bindBidirectional(alignment);
@@ -152,6 +157,7 @@ public abstract class Action extends AbstractAction {
       button.graphicTextGapProperty().bindBidirectional(graphicTextGap);
     }
 
+    button.disableProperty().bindBidirectional(disable);
     button.visibleProperty().bindBidirectional(visible);
     button.managedProperty().bindBidirectional(managed);
     button.mnemonicParsingProperty().bindBidirectional(mnemonicParsing);
@@ -162,7 +168,7 @@ public abstract class Action extends AbstractAction {
       Bindings.bindContentBidirectional(styleClass, button.getStyleClass());
     }
 
-    button.setOnAction(this);
+    button.setOnAction(invoker);
   }
 
   private void configCheckBox(CheckBox button) {
@@ -230,11 +236,15 @@ public abstract class Action extends AbstractAction {
     if (accelerator.get() != null) {
       item.acceleratorProperty().bindBidirectional(accelerator);
     }
-    if ((graphic.get() != null)
-        && ((options & ActionOption.HIDE_MENU_ITEM_GRAPHIC) == 0)) {
-      item.graphicProperty().bindBidirectional(graphic);
+    if ((options & ActionOption.HIDE_MENU_ITEM_GRAPHIC) == 0) {
+      if (graphic.get() != null) {
+        item.graphicProperty().bindBidirectional(graphic);
+      } else if (icon.get() != null) {
+        item.setGraphic(createIconView());
+      }
     }
 
+    item.disableProperty().bindBidirectional(disable);
     item.visibleProperty().bindBidirectional(visible);
     item.mnemonicParsingProperty().bindBidirectional(mnemonicParsing);
 
@@ -244,7 +254,7 @@ public abstract class Action extends AbstractAction {
       Bindings.bindContentBidirectional(styleClass, item.getStyleClass());
     }
 
-    item.setOnAction(this);
+    item.setOnAction(invoker);
   }
 
   private void configCheckMenuItem(CheckMenuItem item) {
@@ -253,6 +263,12 @@ public abstract class Action extends AbstractAction {
 
   private void configRadioMenuItem(RadioMenuItem item) {
     item.selectedProperty().bindBidirectional(selected);
+    //  a radio menu item without toggle group is deselected when clicked while
+    //  selected; the mutual exclusion is done by the ActionToggleGroup on the
+    //  actions, so each item gets its own toggle group, which only makes a
+    //  click select the item, like a RadioButton. A toggle group shared by the
+    //  items would conflict with the items of the same actions in other menus.
+    item.setToggleGroup(new ToggleGroup());
   }
 
   @Override
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the definition of an action loaded by the {@link ActionLoader}.
+ *
+ * @author Haixing Hu
+ */
+final class ActionDefinition {
+
+  boolean group;
+  String id;
+  int options;
+  @Nullable String parent;
+  @Nullable String text;
+  @Nullable String description;
+  @Nullable String accelerator;
+  @Nullable String graphic;
+
+  void writeTo(DataOutput out) throws IOException {
+    out.writeBoolean(group);
+    out.writeUTF(id);
+    out.writeInt(options);
+    writeNullable(out, parent);
+    writeNullable(out, text);
+    writeNullable(out, description);
+    writeNullable(out, accelerator);
+    writeNullable(out, graphic);
+  }
+
+  static ActionDefinition readFrom(DataInput in) throws IOException {
+    final ActionDefinition def = new ActionDefinition();
+    def.group = in.readBoolean();
+    def.id = in.readUTF();
+    def.options = in.readInt();
+    def.parent = readNullable(in);
+    def.text = readNullable(in);
+    def.description = readNullable(in);
+    def.accelerator = readNullable(in);
+    def.graphic = readNullable(in);
+    return def;
+  }
+
+  private static void writeNullable(DataOutput out, @Nullable String str)
+      throws IOException {
+    if (str == null) {
+      out.writeBoolean(false);
+    } else {
+      out.writeBoolean(true);
+      out.writeUTF(str);
+    }
+  }
+
+  @Nullable
+  private static String readNullable(DataInput in) throws IOException {
+    return (in.readBoolean() ? in.readUTF() : null);
+  }
+}
@@ -21,8 +21,11 @@ import java.util.Collections;
 
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
+import javafx.event.Event;
+import javafx.event.EventHandler;
 import javafx.scene.control.ButtonBase;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Menu;
@@ -52,12 +55,26 @@ import com.github.haixing_hu.lang.Argument;
  * control the outlook of the button or menu item, while if we bind the style
  * related property of the button to the action, the CSS styling may be not work
  * in some case.
+ * <p>
+ * If the {@link ActionOption#LAZY_MENU} option is set, the menu created from
+ * this action group will create the menu items of its sub-actions on the first
+ * time it is going to be shown, instead of creating them along with the menu.
+ * <p>
+ * The menu buttons and menus created from an {@link ActionGroup} listen to the
+ * list of its actions, so adding, removing, or permutating actions of the
+ * group will incrementally update the menu items of the created controls.
+ * <p>
+ * If the {@link ActionOption#TOGGLE_GROUP} option is set, the {@code selected}
+ * properties of the sub-actions are mutually exclusive. Since the selection is
+ * tracked on the actions, the radio buttons and radio menu items created from
+ * the same sub-actions always display the same selection.
  *
  * @author Haixing Hu
  */
 public class ActionGroup extends AbstractAction {
 
   protected final ObservableList<IAction> actions;
+  protected final ActionToggleGroup toggleGroup;
 
   /**
    * Creates an empty {@link ActionGroup}.
@@ -133,6 +150,34 @@ public class ActionGroup extends AbstractAction {
     this.options = Argument.requireNonNull("options", options);
     this.actions = FXCollections.<IAction> observableArrayList();
     this.actions.addAll(actions);
+    if ((options & ActionOption.TOGGLE_GROUP) == 0) {
+      this.toggleGroup = null;
+    } else {
+      this.toggleGroup = new ActionToggleGroup();
+      for (final IAction action : this.actions) {
+        addToToggleGroup(action);
+      }
+      this.actions.addListener(new ToggleGroupSynchronizer());
+    }
+  }
+
+  /**
+   * Gets the toggle group of the sub-actions of this action group.
+   *
+   * @return the toggle group of the sub-actions of this action group, or
+   *         {@code null} if the {@link ActionOption#TOGGLE_GROUP} option is not
+   *         set.
+   */
+  @Nullable
+  public final ActionToggleGroup getToggleGroup() {
+    return toggleGroup;
+  }
+
+  private void addToToggleGroup(IAction action) {
+    if ((action instanceof SeparatorAction) || (action instanceof ActionGroup)) {
+      return;
+    }
+    toggleGroup.add(action);
   }
 
   /**
@@ -195,9 +240,12 @@ public class ActionGroup extends AbstractAction {
     if (style.get() != null) {
       button.styleProperty().bindBidirectional(style);
     }
-    if ((graphic.get() != null)
-        && ((options & ActionOption.HIDE_BUTTON_GRAPHIC) == 0)) {
-      button.graphicProperty().bindBidirectional(graphic);
+    if ((options & ActionOption.HIDE_BUTTON_GRAPHIC) == 0) {
+      if (graphic.get() != null) {
+        button.graphicProperty().bindBidirectional(graphic);
+      } else if (icon.get() != null) {
+        button.setGraphic(createIconView());
+      }
     }
     if (alignment.get() != null) {
       button.alignmentProperty().bindBidirectional(alignment);
@@ -208,6 +256,7 @@ public class ActionGroup extends AbstractAction {
     if (graphicTextGap.get() >= 0) {
       button.graphicTextGapProperty().bindBidirectional(graphicTextGap);
     }
+    button.disableProperty().bindBidirectional(disable);
     button.visibleProperty().bindBidirectional(visible);
     button.managedProperty().bindBidirectional(managed);
     button.mnemonicParsingProperty().bindBidirectional(mnemonicParsing);
@@ -218,13 +267,14 @@ public class ActionGroup extends AbstractAction {
       Bindings.bindContentBidirectional(styleClass, button.getStyleClass());
     }
 
-    button.setOnAction(this);
+    button.setOnAction(invoker);
 
     final ObservableList<MenuItem> buttonItems = button.getItems();
     for (final IAction action : actions) {
       final MenuItem item = action.createMenuItem();
       buttonItems.add(item);
     }
+    MenuItemsSynchronizer.install(actions, buttonItems, button.getProperties());
   }
 
   @Override
@@ -252,10 +302,14 @@ public class ActionGroup extends AbstractAction {
     if (accelerator.get() != null) {
       menu.acceleratorProperty().bindBidirectional(accelerator);
     }
-    if ((graphic.get() != null)
-        && ((options & ActionOption.HIDE_MENU_ITEM_GRAPHIC) == 0)) {
-      menu.graphicProperty().bindBidirectional(graphic);
+    if ((options & ActionOption.HIDE_MENU_ITEM_GRAPHIC) == 0) {
+      if (graphic.get() != null) {
+        menu.graphicProperty().bindBidirectional(graphic);
+      } else if (icon.get() != null) {
+        menu.setGraphic(createIconView());
+      }
     }
+    menu.disableProperty().bindBidirectional(disable);
     menu.visibleProperty().bindBidirectional(visible);
     menu.mnemonicParsingProperty().bindBidirectional(mnemonicParsing);
 
@@ -265,12 +319,47 @@ public class ActionGroup extends AbstractAction {
       Bindings.bindContentBidirectional(styleClass, menu.getStyleClass());
     }
 
-    menu.setOnAction(this);
+    menu.setOnAction(invoker);
 
+    if ((options & ActionOption.LAZY_MENU) == 0) {
+      populateMenu(menu);
+    } else {
+      //  a menu without any item may not be shown, so we add a placeholder
+      //  item, which will be replaced when the menu is going to be shown.
+      final MenuItem placeholder = new MenuItem();
+      placeholder.setDisable(true);
+      menu.getItems().add(placeholder);
+      menu.addEventHandler(Menu.ON_SHOWING, new LazyMenuPopulator(menu));
+    }
+  }
+
+  private void populateMenu(Menu menu) {
     final ObservableList<MenuItem> menuItems = menu.getItems();
+    final MenuItem[] items = new MenuItem[actions.size()];
+    int i = 0;
     for (final IAction action : actions) {
-      final MenuItem item = action.createMenuItem();
-      menuItems.add(item);
+      items[i++] = action.createMenuItem();
+    }
+    menuItems.setAll(items);
+    MenuItemsSynchronizer.install(actions, menuItems, menu.getProperties());
+  }
+
+  /**
+   * The event handler used to populate the items of a lazy menu on the first
+   * time it is going to be shown.
+   */
+  private final class LazyMenuPopulator implements EventHandler<Event> {
+
+    private final Menu menu;
+
+    LazyMenuPopulator(Menu menu) {
+      this.menu = menu;
+    }
+
+    @Override
+    public void handle(Event event) {
+      menu.removeEventHandler(Menu.ON_SHOWING, this);
+      populateMenu(menu);
     }
   }
 
@@ -285,4 +374,25 @@ public class ActionGroup extends AbstractAction {
   public void handle(ActionEvent event) {
     // do nothing
   }
+
+  /**
+   * Keeps the toggle group in sync with the list of sub-actions.
+   */
+  private final class ToggleGroupSynchronizer implements ListChangeListener<IAction> {
+
+    @Override
+    public void onChanged(Change<? extends IAction> change) {
+      while (change.next()) {
+        if (change.wasPermutated()) {
+          continue;
+        }
+        for (final IAction action : change.getRemoved()) {
+          toggleGroup.remove(action);
+        }
+        for (final IAction action : change.getAddedSubList()) {
+          addToToggleGroup(action);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+
+import javax.annotation.Nullable;
+
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * An {@link ActionIndex} indexes the actions by their ids and the words in
+ * their texts and descriptions.
+ * <p>
+ * The ids are stored in a sorted map, so the actions whose ids start with a
+ * given prefix, e.g., all the actions under the {@code "file."} hierarchy,
+ * could be found without scanning all actions. The lower-cased ids are also
+ * stored in a sorted map, which is used by the case insensitive search. The
+ * words of the texts and
+ * descriptions (i.e., the tokens) are lower-cased and also stored in a sorted
+ * map, so that a query is answered by looking up the tokens starting with each
+ * word of the query.
+ * <p>
+ * The index listens to the text and description properties of the indexed
+ * actions, and updates the tokens of an action when its text or description
+ * changes. The changes of the index are reported to the registered
+ * {@link ActionIndexListener}s, so that the derived structures, e.g., the
+ * search keys of a command palette, could be updated incrementally.
+ *
+ * @author Haixing Hu
+ */
+public final class ActionIndex {
+
+  private final NavigableMap<String, IAction> ids;
+  private final NavigableMap<String, Set<IAction>> lowerIds;
+  private final NavigableMap<String, Set<IAction>> tokens;
+  private final Map<IAction, Entry> entries;
+  private final List<ActionIndexListener> listeners;
+
+  /**
+   * Constructs an empty {@link ActionIndex}.
+   */
+  public ActionIndex() {
+    ids = new TreeMap<String, IAction>();
+    lowerIds = new TreeMap<String, Set<IAction>>();
+    tokens = new TreeMap<String, Set<IAction>>();
+    entries = new IdentityHashMap<IAction, Entry>();
+    listeners = new CopyOnWriteArrayList<ActionIndexListener>();
+  }
+
+  /**
+   * Adds a listener of this index.
+   *
+   * @param listener
+   *          the listener to be added.
+   */
+  public void addListener(ActionIndexListener listener) {
+    listeners.add(Argument.requireNonNull("listener", listener));
+  }
+
+  /**
+   * Removes a listener of this index.
+   *
+   * @param listener
+   *          the listener to be removed.
+   */
+  public void removeListener(ActionIndexListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Adds an action to this index.
+   * <p>
+   * The {@link SeparatorAction} and the actions without id are ignored.
+   *
+   * @param action
+   *          the action to be added.
+   */
+  public synchronized void add(IAction action) {
+    final String id = action.getId();
+    if ((id == null) || (action instanceof SeparatorAction)
+        || entries.containsKey(action)) {
+      return;
+    }
+    final IAction previous = ids.put(id, action);
+    if (previous != null) {
+      remove(previous);
+      ids.put(id, action);
+    }
+    final Entry entry = new Entry(action);
+    entries.put(action, entry);
+    put(lowerIds, entry.lowerId, action);
+    entry.index();
+    action.textProperty().addListener(entry);
+    action.descriptionProperty().addListener(entry);
+    for (final ActionIndexListener listener : listeners) {
+      listener.actionAdded(action);
+    }
+  }
+
+  /**
+   * Removes an action from this index.
+   *
+   * @param action
+   *          the action to be removed.
+   */
+  public synchronized void remove(IAction action) {
+    final Entry entry = entries.remove(action);
+    if (entry == null) {
+      return;
+    }
+    action.textProperty().removeListener(entry);
+    action.descriptionProperty().removeListener(entry);
+    entry.unindex();
+    delete(lowerIds, entry.lowerId, action);
+    if (ids.get(entry.id) == action) {
+      ids.remove(entry.id);
+    }
+    for (final ActionIndexListener listener : listeners) {
+      listener.actionRemoved(action);
+    }
+  }
+
+  /**
+   * Removes all actions from this index.
+   */
+  public synchronized void clear() {
+    for (final Entry entry : entries.values()) {
+      entry.action.textProperty().removeListener(entry);
+      entry.action.descriptionProperty().removeListener(entry);
+    }
+    final IAction[] removed = entries.keySet().toArray(new IAction[entries.size()]);
+    entries.clear();
+    ids.clear();
+    lowerIds.clear();
+    tokens.clear();
+    for (final IAction action : removed) {
+      for (final ActionIndexListener listener : listeners) {
+        listener.actionRemoved(action);
+      }
+    }
+  }
+
+  /**
+   * Gets all actions in this index.
+   *
+   * @return the list of all actions in this index.
+   */
+  public synchronized List<IAction> getAll() {
+    return new ArrayList<IAction>(entries.keySet());
+  }
+
+  /**
+   * Gets the number of actions in this index.
+   *
+   * @return the number of actions in this index.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Finds the actions whose ids start with the specified prefix.
+   *
+   * @param prefix
+   *          the prefix of the ids.
+   * @return the list of actions whose ids start with the specified prefix, in
+   *         the order of their ids.
+   */
+  public synchronized List<IAction> findByIdPrefix(String prefix) {
+    return new ArrayList<IAction>(prefixRange(ids, prefix).values());
+  }
+
+  /**
+   * Searches the actions matching the specified query.
+   * <p>
+   * The query is split into words by white spaces, and an action matches the
+   * query if for every word of the query, the id of the action starts with
+   * it, or the text or description of the action contains the words starting
+   * with each part of it, e.g., the query word {@code "file.op"} matches the
+   * action with id {@code "File.Open"}, and the action whose text contains
+   * the words {@code "file"} and {@code "open"}. The match is case
+   * insensitive.
+   *
+   * @param query
+   *          the query.
+   * @return the list of actions matching the query.
+   */
+  public synchronized List<IAction> search(String query) {
+    final String[] words = query.trim().toLowerCase().split("\\s+");
+    if (words[0].isEmpty()) {
+      return Collections.emptyList();
+    }
+    Set<IAction> result = null;
+    for (final String word : words) {
+      //  the actions whose words match all the parts of the query word
+      Set<IAction> matched = null;
+      for (final String part : tokenize(word)) {
+        final Set<IAction> partMatched = new LinkedHashSet<IAction>();
+        for (final Set<IAction> actions : prefixRange(tokens, part).values()) {
+          partMatched.addAll(actions);
+        }
+        if (matched == null) {
+          matched = partMatched;
+        } else {
+          matched.retainAll(partMatched);
+        }
+      }
+      if (matched == null) {
+        matched = new LinkedHashSet<IAction>();
+      }
+      for (final Set<IAction> actions : prefixRange(lowerIds, word).values()) {
+        matched.addAll(actions);
+      }
+      if (result == null) {
+        result = matched;
+      } else {
+        result.retainAll(matched);
+      }
+      if (result.isEmpty()) {
+        break;
+      }
+    }
+    return new ArrayList<IAction>(result);
+  }
+
+  private static void put(Map<String, Set<IAction>> map, String key,
+      IAction action) {
+    Set<IAction> actions = map.get(key);
+    if (actions == null) {
+      actions = new LinkedHashSet<IAction>();
+      map.put(key, actions);
+    }
+    actions.add(action);
+  }
+
+  private static void delete(Map<String, Set<IAction>> map, String key,
+      IAction action) {
+    final Set<IAction> actions = map.get(key);
+    if (actions != null) {
+      actions.remove(action);
+      if (actions.isEmpty()) {
+        map.remove(key);
+      }
+    }
+  }
+
+  private static <V> NavigableMap<String, V> prefixRange(
+      NavigableMap<String, V> map, String prefix) {
+    if (prefix.isEmpty()) {
+      return map;
+    }
+    return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+  }
+
+  /**
+   * Splits a text into lower-cased words.
+   * <p>
+   * The mnemonic parsing characters '_' are removed from the text.
+   *
+   * @param text
+   *          the text to be split, which could be {@code null}.
+   * @return the list of lower-cased words of the text.
+   */
+  static List<String> tokenize(@Nullable String text) {
+    if (text == null) {
+      return Collections.emptyList();
+    }
+    final List<String> result = new ArrayList<String>();
+    final StringBuilder builder = new StringBuilder();
+    final int n = text.length();
+    for (int i = 0; i <= n; ++i) {
+      final char ch = (i < n ? text.charAt(i) : ' ');
+      if (Character.isLetterOrDigit(ch)) {
+        builder.append(Character.toLowerCase(ch));
+      } else if (ch != '_') {
+        if (builder.length() > 0) {
+          result.add(builder.toString());
+          builder.setLength(0);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The entry of an indexed action.
+   */
+  private final class Entry implements InvalidationListener {
+    final IAction action;
+    final String id;
+    final String lowerId;
+    Collection<String> indexed;
+
+    Entry(IAction action) {
+      this.action = action;
+      this.id = action.getId();
+      this.lowerId = id.toLowerCase();
+      this.indexed = Collections.emptySet();
+    }
+
+    void index() {
+      final Set<String> words = new LinkedHashSet<String>();
+      words.addAll(tokenize(action.getText()));
+      words.addAll(tokenize(action.getDescription()));
+      for (final String word : words) {
+        put(tokens, word, action);
+      }
+      indexed = words;
+    }
+
+    void unindex() {
+      for (final String word : indexed) {
+        delete(tokens, word, action);
+      }
+      indexed = Collections.emptySet();
+    }
+
+    @Override
+    public void invalidated(Observable observable) {
+      synchronized (ActionIndex.this) {
+        unindex();
+        index();
+        for (final ActionIndexListener listener : listeners) {
+          listener.actionChanged(action);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+/**
+ * The interface of the listeners notified of the changes of an
+ * {@link ActionIndex}.
+ * <p>
+ * The methods are called while the index is locked, in the thread modifying
+ * the index, so they should return quickly and should not call back the
+ * index from another thread.
+ *
+ * @author Haixing Hu
+ */
+public interface ActionIndexListener {
+
+  /**
+   * Called after an action is added to the index.
+   *
+   * @param action
+   *          the added action.
+   */
+  void actionAdded(IAction action);
+
+  /**
+   * Called after an action is removed from the index.
+   *
+   * @param action
+   *          the removed action.
+   */
+  void actionRemoved(IAction action);
+
+  /**
+   * Called after the text or description of an indexed action changed.
+   *
+   * @param action
+   *          the changed action.
+   */
+  void actionChanged(IAction action);
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.HttpURLConnection;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.scene.input.KeyCombination;
+import javafx.util.Callback;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * An {@link ActionLoader} loads the actions declared in a resource file into
+ * an {@link ActionManager}.
+ * <p>
+ * The resource file is a UTF-8 encoded text file, where each non-empty line
+ * not starting with a '#' declares an action or an action group. A line
+ * consists of the following fields separated by the '|' character, and the
+ * trailing empty fields could be omitted:
+ * <ol>
+ * <li>the kind of the declaration, either {@code action} or {@code group};</li>
+ * <li>the id of the action;</li>
+ * <li>the options of the action, which is a comma separated list of the names
+ * of the constants defined in {@link ActionOption}, or empty for the
+ * {@link ActionOption#DEFAULT};</li>
+ * <li>the id of the action group containing the action, or empty if none;</li>
+ * <li>the text of the action;</li>
+ * <li>the description of the action;</li>
+ * <li>the accelerator of the action, in the format accepted by
+ * {@link KeyCombination#valueOf(String)};</li>
+ * <li>the path of the graphic of the action, relative to the resource file.</li>
+ * </ol>
+ * For example:
+ *
+ * <pre>
+ * # kind | id | options | group | text | description | accelerator | graphic
+ * group  | file      | MENU        |      | _File
+ * action | file.open | SHOW_DIALOG | file | _Open | Open a file | Shortcut+O | icons/open.png
+ * </pre>
+ *
+ * The actions are added to their groups in the order of their declarations.
+ * <p>
+ * If a cache directory is set, the parsed declarations are stored in a binary
+ * cache file, and the subsequent loading of the same resource reads the cache
+ * instead of parsing the text, as long as the length and the last modified
+ * time of the resource are not changed. The resources whose length or last
+ * modified time is unknown are never cached.
+ * <p>
+ * The graphics of the loaded actions are set as their icons, so they are not
+ * loaded until a control is created from the action, and the handlers of the
+ * loaded actions are resolved by the handler callback on the first time the
+ * action is triggered.
+ *
+ * @author Haixing Hu
+ */
+public final class ActionLoader {
+
+  private static final int CACHE_MAGIC = 0x41435431;    // "ACT1"
+  private static final int CACHE_VERSION = 3;
+
+  private static final char SEPARATOR = '|';
+  private static final char COMMENT = '#';
+  private static final String KIND_ACTION = "action";
+  private static final String KIND_GROUP = "group";
+
+  private static Map<String, Integer> optionValues;
+
+  private final ActionManager manager;
+  private final Callback<String, EventHandler<ActionEvent>> handlers;
+  private final Logger logger;
+  private File cacheDirectory;
+
+  /**
+   * Constructs an {@link ActionLoader}.
+   *
+   * @param manager
+   *          the action manager where the loaded actions are added to.
+   * @param handlers
+   *          the callback used to resolve the handler of a loaded action from
+   *          its id. It could return {@code null} if no handler is associated
+   *          with the action.
+   */
+  public ActionLoader(ActionManager manager,
+      Callback<String, EventHandler<ActionEvent>> handlers) {
+    this.manager = Argument.requireNonNull("manager", manager);
+    this.handlers = Argument.requireNonNull("handlers", handlers);
+    this.logger = LoggerFactory.getLogger(ActionLoader.class);
+    this.cacheDirectory = null;
+  }
+
+  /**
+   * Gets the directory where the binary caches are stored.
+   *
+   * @return the directory where the binary caches are stored, or {@code null}
+   *         if the caches are disabled.
+   */
+  public File getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /**
+   * Sets the directory where the binary caches are stored.
+   *
+   * @param cacheDirectory
+   *          the directory where the binary caches are stored, or {@code null}
+   *          to disable the caches.
+   */
+  public void setCacheDirectory(@Nullable File cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /**
+   * Loads the actions declared in a resource file.
+   *
+   * @param resource
+   *          the URL of the resource file.
+   * @return the list of loaded actions, in the order of their declarations.
+   * @throws IOException
+   *           if any I/O error occurred.
+   */
+  public List<IAction> load(URL resource) throws IOException {
+    final URLConnection conn = resource.openConnection();
+    final long length;
+    final long lastModified;
+    //  the length and the last modified time of a file or a jar entry are read
+    //  without connecting, since connecting opens the input stream
+    final File file = toFile(resource);
+    boolean connected = false;
+    boolean read = false;
+    if (file != null) {
+      length = (file.isFile() ? file.length() : - 1);
+      lastModified = file.lastModified();
+    } else if (conn instanceof JarURLConnection) {
+      final JarEntry entry = ((JarURLConnection) conn).getJarEntry();
+      length = (entry == null ? - 1 : entry.getSize());
+      lastModified = (entry == null ? 0 : entry.getTime());
+    } else {
+      connected = true;
+      length = conn.getContentLengthLong();
+      lastModified = conn.getLastModified();
+    }
+    List<ActionDefinition> defs = null;
+    try {
+      //  a resource whose freshness could not be checked is never cached
+      final File cache = ((length < 0) || (lastModified <= 0) ? null
+                                                              : getCacheFile(resource));
+      if (cache != null && cache.isFile()) {
+        defs = readCache(cache, resource, length, lastModified);
+      }
+      if (defs == null) {
+        read = true;
+        try (InputStream in = conn.getInputStream()) {
+          defs = parse(resource, in);
+        }
+        if (cache != null) {
+          writeCache(cache, resource, length, lastModified, defs);
+        }
+      }
+    } finally {
+      if (connected && (! read)) {
+        release(conn);
+      }
+    }
+    return register(resource, defs);
+  }
+
+  private List<IAction> register(URL resource, List<ActionDefinition> defs) {
+    final List<IAction> result = new ArrayList<IAction>(defs.size());
+    for (final ActionDefinition def : defs) {
+      final IAction action;
+      if (def.group) {
+        action = new ActionGroup(def.id, def.options);
+      } else {
+        action = new DeclaredAction(def.id, def.options, handlers);
+      }
+      final URL graphicUrl = resolve(resource, def.graphic);
+      if (graphicUrl != null) {
+        action.setIcon(graphicUrl.toExternalForm());
+      }
+      if (def.text != null) {
+        action.setText(def.text);
+      }
+      if (def.description != null) {
+        action.setDescription(def.description);
+      }
+      if (def.accelerator != null) {
+        action.setAccelerator(KeyCombination.valueOf(def.accelerator));
+      }
+      manager.add(action);
+      result.add(action);
+    }
+    //  add the actions to their groups after all actions are created, so that
+    //  a group could be declared after its members.
+    for (int i = 0; i < defs.size(); ++i) {
+      final String parent = defs.get(i).parent;
+      if (parent != null) {
+        final IAction group = manager.get(parent);
+        if (group instanceof ActionGroup) {
+          ((ActionGroup) group).add(result.get(i));
+        } else {
+          logger.error("Unknown action group id: {}", parent);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private URL resolve(URL resource, @Nullable String path) {
+    if (path == null) {
+      return null;
+    }
+    try {
+      return new URL(resource, path);
+    } catch (final MalformedURLException e) {
+      logger.error("Invalid graphic path: {}", path, e);
+      return null;
+    }
+  }
+
+  private List<ActionDefinition> parse(URL resource, InputStream in)
+      throws IOException {
+    final List<ActionDefinition> defs = new ArrayList<ActionDefinition>();
+    final BufferedReader reader = new BufferedReader(
+        new InputStreamReader(in, StandardCharsets.UTF_8));
+    final String[] fields = new String[8];
+    int lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      ++lineNumber;
+      line = line.trim();
+      if (line.isEmpty() || (line.charAt(0) == COMMENT)) {
+        continue;
+      }
+      split(line, fields);
+      final ActionDefinition def = new ActionDefinition();
+      if (KIND_GROUP.equals(fields[0])) {
+        def.group = true;
+      } else if (KIND_ACTION.equals(fields[0])) {
+        def.group = false;
+      } else {
+        logger.error("Invalid declaration kind at {}:{}: {}", resource,
+            lineNumber, fields[0]);
+        continue;
+      }
+      if (fields[1] == null) {
+        logger.error("Missing action id at {}:{}", resource, lineNumber);
+        continue;
+      }
+      def.id = fields[1];
+      final Integer options = parseOptions(fields[2]);
+      if (options == null) {
+        logger.error("Invalid action options at {}:{}: {}", resource,
+            lineNumber, fields[2]);
+        continue;
+      }
+      def.options = options;
+      def.parent = fields[3];
+      def.text = fields[4];
+      def.description = fields[5];
+      if (fields[6] != null) {
+        try {
+          KeyCombination.valueOf(fields[6]);
+        } catch (final IllegalArgumentException e) {
+          logger.error("Invalid accelerator at {}:{}: {}", resource,
+              lineNumber, fields[6]);
+          continue;
+        }
+      }
+      def.accelerator = fields[6];
+      def.graphic = fields[7];
+      defs.add(def);
+    }
+    return defs;
+  }
+
+  /**
+   * Splits a line into fields. The empty or missing fields are set to
+   * {@code null}.
+   */
+  private static void split(String line, String[] fields) {
+    int start = 0;
+    for (int i = 0; i < fields.length; ++i) {
+      if (start > line.length()) {
+        fields[i] = null;
+        continue;
+      }
+      int end = line.indexOf(SEPARATOR, start);
+      if ((end < 0) || (i == fields.length - 1)) {
+        end = line.length();
+      }
+      final String field = line.substring(start, end).trim();
+      fields[i] = (field.isEmpty() ? null : field);
+      start = end + 1;
+    }
+  }
+
+  @Nullable
+  private static Integer parseOptions(@Nullable String str) {
+    if (str == null) {
+      return ActionOption.DEFAULT;
+    }
+    final Map<String, Integer> values = getOptionValues();
+    int options = 0;
+    for (final String name : str.split(",")) {
+      final Integer value = values.get(name.trim());
+      if (value == null) {
+        return null;
+      }
+      options |= value;
+    }
+    return options;
+  }
+
+  private static synchronized Map<String, Integer> getOptionValues() {
+    if (optionValues == null) {
+      final Map<String, Integer> values = new HashMap<String, Integer>();
+      for (final Field field : ActionOption.class.getFields()) {
+        if (Modifier.isStatic(field.getModifiers())
+            && (field.getType() == int.class)) {
+          try {
+            values.put(field.getName(), field.getInt(null));
+          } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      }
+      optionValues = values;
+    }
+    return optionValues;
+  }
+
+  /**
+   * Gets the local file of a {@code file:} URL.
+   */
+  @Nullable
+  private static File toFile(URL resource) {
+    if (! "file".equals(resource.getProtocol())) {
+      return null;
+    }
+    try {
+      return new File(resource.toURI());
+    } catch (final URISyntaxException | IllegalArgumentException e) {
+      return new File(resource.getPath());
+    }
+  }
+
+  /**
+   * Releases the resources held by a connection whose input stream has not
+   * been read, since getting its length or last modified time may have
+   * opened the input stream.
+   */
+  private void release(URLConnection conn) {
+    if (conn instanceof HttpURLConnection) {
+      ((HttpURLConnection) conn).disconnect();
+    } else {
+      try {
+        conn.getInputStream().close();
+      } catch (final IOException e) {
+        logger.debug("Failed to close the connection: {}", conn.getURL(), e);
+      }
+    }
+  }
+
+  @Nullable
+  private File getCacheFile(URL resource) {
+    if (cacheDirectory == null) {
+      return null;
+    }
+    final String name = "actions-"
+        + Integer.toHexString(resource.toExternalForm().hashCode()) + ".bin";
+    return new File(cacheDirectory, name);
+  }
+
+  @Nullable
+  private List<ActionDefinition> readCache(File cache, URL resource,
+      long length, long lastModified) {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(cache)))) {
+      //  the name of a cache file is only the hash code of the URL, so the URL
+      //  is checked to detect the collisions
+      if ((in.readInt() != CACHE_MAGIC)
+          || (in.readInt() != CACHE_VERSION)
+          || (! resource.toExternalForm().equals(in.readUTF()))
+          || (in.readLong() != length)
+          || (in.readLong() != lastModified)) {
+        return null;
+      }
+      final int n = in.readInt();
+      final List<ActionDefinition> defs = new ArrayList<ActionDefinition>(n);
+      for (int i = 0; i < n; ++i) {
+        defs.add(ActionDefinition.readFrom(in));
+      }
+      return defs;
+    } catch (final IOException e) {
+      logger.warn("Failed to read the action cache: {}", cache, e);
+      return null;
+    }
+  }
+
+  private void writeCache(File cache, URL resource, long length,
+      long lastModified, List<ActionDefinition> defs) {
+    if ((! cacheDirectory.isDirectory()) && (! cacheDirectory.mkdirs())) {
+      logger.warn("Failed to create the action cache directory: {}",
+          cacheDirectory);
+      return;
+    }
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(cache)))) {
+      out.writeInt(CACHE_MAGIC);
+      out.writeInt(CACHE_VERSION);
+      out.writeUTF(resource.toExternalForm());
+      out.writeLong(length);
+      out.writeLong(lastModified);
+      out.writeInt(defs.size());
+      for (final ActionDefinition def : defs) {
+        def.writeTo(out);
+      }
+    } catch (final IOException e) {
+      logger.warn("Failed to write the action cache: {}", cache, e);
+    }
+  }
+}
@@ -15,10 +15,18 @@
  *
  */package com.github.haixing_hu.javafx.action;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
+import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
@@ -26,6 +34,7 @@ import javafx.beans.property.StringProperty;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.ButtonBase;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ContentDisplay;
@@ -44,19 +53,78 @@ import org.slf4j.LoggerFactory;
 
 /**
  * An {@link ActionManager} is a map from the id to the action.
+ * <p>
+ * By default an {@link ActionManager} should only be accessed in the JavaFX
+ * application thread. A thread safe {@link ActionManager} could be created by
+ * the {@link #ActionManager(boolean)} constructor, whose actions are stored in
+ * a concurrent map, so that the actions could be looked up from any thread
+ * without locking. Moreover, the changes of the properties of actions made by
+ * the setters of a thread safe {@link ActionManager} in a thread other than
+ * the JavaFX application thread are marshalled onto the JavaFX application
+ * thread; if the same property of the same action is changed several times
+ * before the changes are applied, only the last change is applied.
+ * <p>
+ * Besides the accessors of the individual properties, the properties of
+ * actions could be accessed through the generic accessors taking an
+ * {@link ActionProperty} key, e.g., {@link #set(String, ActionProperty, Object)}
+ * and {@link #setAll(ActionProperty, Object, String...)}, which are convenient
+ * for changing the same property of many actions at once.
+ * <p>
+ * <b>NOTE:</b> the accelerator registry, the enablement engine and the undo
+ * manager of an {@link ActionManager} should always be accessed in the JavaFX
+ * application thread.
  *
  * @author Haixing Hu
  */
 public class ActionManager {
 
+  private static final String CLEAR_KEY = "#clear";
+
   private final Map<String, IAction> map;
+  private final boolean threadSafe;
+  private final FxUpdateQueue updates;
+  private final ActionIndex index;
+  private final AcceleratorRegistry accelerators;
+  private final EnablementEngine enablement;
+  private UndoManager undoManager;
   private final Logger logger;
 
   public ActionManager() {
-    map = new HashMap<String, IAction>();
+    this(false);
+  }
+
+  /**
+   * Constructs an {@link ActionManager}.
+   *
+   * @param threadSafe
+   *          whether the new action manager is thread safe.
+   */
+  public ActionManager(boolean threadSafe) {
+    this.threadSafe = threadSafe;
+    if (threadSafe) {
+      map = new ConcurrentHashMap<String, IAction>();
+      updates = new FxUpdateQueue();
+    } else {
+      map = new HashMap<String, IAction>();
+      updates = null;
+    }
+    index = new ActionIndex();
+    accelerators = new AcceleratorRegistry();
+    enablement = new EnablementEngine();
+    undoManager = null;
     logger = LoggerFactory.getLogger(ActionManager.class);
   }
 
+  /**
+   * Tests whether this action manager is thread safe.
+   *
+   * @return {@code true} if this action manager is thread safe; {@code false}
+   *         otherwise.
+   */
+  public final boolean isThreadSafe() {
+    return threadSafe;
+  }
+
   public final boolean isEmpty() {
     return map.isEmpty();
   }
@@ -79,72 +147,435 @@ public class ActionManager {
 
   public final void add(IAction action) {
     final String id = action.getId();
-    if (map.containsKey(id)) {
+    if (threadSafe && (id == null)) {
+      logger.error("A thread safe action manager cannot contain an action without id.");
+      return;
+    }
+    final IAction previous = map.put(id, action);
+    if (previous != null) {
       logger.warn("The action already exists: {}", id);
+      index.remove(previous);
+      unregister(previous);
     }
-    map.put(id, action);
+    index.add(action);
   }
 
   public final IAction remove(String id) {
-    return map.remove(id);
+    final IAction action = map.remove(id);
+    if (action != null) {
+      index.remove(action);
+      unregister(action);
+    }
+    return action;
+  }
+
+  /**
+   * Unregisters a removed or replaced action from the accelerator registry and
+   * the enablement engine.
+   * <p>
+   * The job is keyed by the identity of the action rather than by its id, so
+   * the pending unregistrations of different actions with the same id are
+   * never coalesced.
+   */
+  private void unregister(IAction action) {
+    runOnFxThread(new RemovalKey(action), () -> {
+      accelerators.unregister(action);
+      enablement.unregister(action);
+    });
   }
 
   public final void clear() {
     map.clear();
+    index.clear();
+    runOnFxThread(CLEAR_KEY, () -> {
+      accelerators.clear();
+      enablement.clear();
+    });
   }
 
   /**
-   * Gets the text (i.e., title) of the specified action.
+   * Applies an update of a property of an action.
+   * <p>
+   * If this action manager is thread safe and the current thread is not the
+   * JavaFX application thread, the update is marshalled onto the JavaFX
+   * application thread, replacing the pending update of the same property of
+   * the same action; otherwise the update is applied immediately, and the
+   * older pending update of the same property of the same action, if any, is
+   * cancelled.
+   *
+   * @param id
+   *          the id of the action.
+   * @param property
+   *          the name of the updated property.
+   * @param update
+   *          the update.
+   */
+  private void update(String id, String property, Runnable update) {
+    runOnFxThread(id + '#' + property, update);
+  }
+
+  /**
+   * Runs a job on the JavaFX application thread if this action manager is
+   * thread safe, or immediately otherwise.
+   *
+   * @param key
+   *          the key of the job, which replaces or cancels the pending job with
+   *          the same key.
+   * @param job
+   *          the job.
+   */
+  private void runOnFxThread(Object key, Runnable job) {
+    if (threadSafe) {
+      if (! Platform.isFxApplicationThread()) {
+        updates.submit(key, job);
+        return;
+      }
+      updates.cancel(key);
+    }
+    job.run();
+  }
+
+  /**
+   * Gets the lookup index of the actions in this action manager.
+   *
+   * @return the lookup index of the actions in this action manager.
+   */
+  public final ActionIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Finds the actions whose ids start with the specified prefix.
+   *
+   * @param prefix
+   *          the prefix of the ids.
+   * @return the list of actions whose ids start with the specified prefix, in
+   *         the order of their ids.
+   */
+  public final List<IAction> findByIdPrefix(String prefix) {
+    return index.findByIdPrefix(prefix);
+  }
+
+  /**
+   * Searches the actions matching the specified query.
+   *
+   * @param query
+   *          the query, whose words are matched against the prefixes of the
+   *          words of the texts and descriptions, and the ids of actions.
+   * @return the list of actions matching the query.
+   * @see ActionIndex#search(String)
+   */
+  public final List<IAction> search(String query) {
+    return index.search(query);
+  }
+
+  /**
+   * Gets the accelerator registry of this action manager.
+   *
+   * @return the accelerator registry of this action manager.
+   */
+  public final AcceleratorRegistry getAcceleratorRegistry() {
+    return accelerators;
+  }
+
+  /**
+   * Registers the accelerator of the specified action, so that the action
+   * could be triggered by its accelerator in the scenes where the accelerators
+   * of this action manager are installed, even if no menu item was created
+   * from the action.
    *
    * @param id
    *          the id of an action.
-   * @return the text (i.e., title) of the specified action, or
-   *         {@code null} if it has none.
+   * @return {@code true} if the accelerator of the action is registered
+   *         without conflict; {@code false} otherwise.
+   * @see #installAccelerators(Scene)
    */
-  public final String getText(String id) {
+  public final boolean registerAccelerator(String id) {
     final IAction action = map.get(id);
     if (action == null) {
       logger.error("Unknown action id: {}", id);
-      return null;
+      return false;
     } else {
-      return action.getText();
+      return accelerators.register(action);
     }
   }
 
   /**
-   * Sets the text (i.e., title) of the specified action.
+   * Gets the enablement engine of this action manager.
+   *
+   * @return the enablement engine of this action manager.
+   */
+  public final EnablementEngine getEnablementEngine() {
+    return enablement;
+  }
+
+  /**
+   * Gets the undo manager of this action manager.
+   * <p>
+   * The undo manager is created on the first call of this method or of
+   * {@link #getUndoManager(String, String)}; if created by this method, its
+   * undo and redo actions have the ids {@link UndoManager#UNDO_ID} and
+   * {@link UndoManager#REDO_ID}.
+   *
+   * @return the undo manager of this action manager.
+   * @see #getUndoManager(String, String)
+   */
+  public final UndoManager getUndoManager() {
+    return getUndoManager(UndoManager.UNDO_ID, UndoManager.REDO_ID);
+  }
+
+  /**
+   * Gets the undo manager of this action manager.
+   * <p>
+   * The undo manager is created on the first call of this method or of
+   * {@link #getUndoManager()}, and its undo and redo actions are added to this
+   * action manager with the specified ids. If an id is already used by another
+   * action, that action is kept, and the corresponding action of the undo
+   * manager is not added. The ids are ignored if the undo manager already
+   * exists.
+   *
+   * @param undoId
+   *          the id of the undo action.
+   * @param redoId
+   *          the id of the redo action.
+   * @return the undo manager of this action manager.
+   */
+  public final UndoManager getUndoManager(String undoId, String redoId) {
+    if (undoManager == null) {
+      undoManager = new UndoManager(undoId, redoId);
+      addIfAbsent(undoManager.getUndoAction());
+      addIfAbsent(undoManager.getRedoAction());
+    }
+    return undoManager;
+  }
+
+  private void addIfAbsent(IAction action) {
+    if (map.containsKey(action.getId())) {
+      logger.error("The id of the undo manager action is already used: {}",
+          action.getId());
+    } else {
+      add(action);
+    }
+  }
+
+  /**
+   * Declares the enablement rule of the specified action.
+   * <p>
+   * The {@code disable} property of the action will be re-evaluated from the
+   * predicate whenever one of its dependencies changed.
    *
    * @param id
    *          the id of an action.
-   * @param text
-   *          the new text (i.e., title) to be set to the specified action, or
-   *          {@code null} to set none.
+   * @param enabled
+   *          the predicate telling whether the action is enabled.
+   * @param dependencies
+   *          the observable objects the predicate depends on.
+   * @see EnablementEngine
    */
-  public final void setText(String id, @Nullable String text) {
+  public final void setEnablement(String id, BooleanSupplier enabled,
+      Observable... dependencies) {
     final IAction action = map.get(id);
     if (action == null) {
       logger.error("Unknown action id: {}", id);
     } else {
-      action.setText(text);
+      enablement.register(action, enabled, dependencies);
     }
   }
 
   /**
-   * Gets the text (i.e., title) property of the specified action.
+   * Installs the accelerators registered in this action manager to a scene.
+   *
+   * @param scene
+   *          the scene to be installed to.
+   * @see #registerAccelerator(String)
+   */
+  public final void installAccelerators(Scene scene) {
+    accelerators.install(scene);
+  }
+
+  /**
+   * Gets a property of the specified action.
    *
    * @param id
    *          the id of an action.
-   * @return the text (i.e., title) property of the specified action, or null if
-   *         no such action.
+   * @param key
+   *          the key of the property.
+   * @return the value of the property of the specified action, or
+   *         {@code null} if the action does not exist.
    */
-  public final StringProperty textProperty(String id) {
+  @Nullable
+  public final <T> T get(String id, ActionProperty<T> key) {
+    final IAction action = lookup(id);
+    return (action == null ? null : key.get(action));
+  }
+
+  /**
+   * Gets a property of the specified action, or a default value if the action
+   * does not exist.
+   */
+  private <T> T get(String id, ActionProperty<T> key, T defaultValue) {
+    final IAction action = lookup(id);
+    return (action == null ? defaultValue : key.get(action));
+  }
+
+  /**
+   * Gets a JavaFX property of the specified action, or {@code null} if the
+   * action does not exist.
+   */
+  private <P> P property(String id, Function<IAction, P> getter) {
+    final IAction action = lookup(id);
+    return (action == null ? null : getter.apply(action));
+  }
+
+  /**
+   * Gets the action with the specified id, logging an error if there is no
+   * such action.
+   */
+  @Nullable
+  private IAction lookup(String id) {
     final IAction action = map.get(id);
     if (action == null) {
       logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.textProperty();
     }
+    return action;
+  }
+
+  /**
+   * Sets a property of the specified action.
+   *
+   * @param id
+   *          the id of an action.
+   * @param key
+   *          the key of the property.
+   * @param value
+   *          the new value of the property.
+   * @throws IllegalArgumentException
+   *           if the value does not match the type of the key, e.g., it is
+   *           {@code null} while the property is of a primitive type.
+   */
+  public final <T> void set(String id, ActionProperty<T> key, T value) {
+    final T checked = key.check(value);
+    final IAction action = lookup(id);
+    if (action != null) {
+      update(id, key.getName(), () -> key.set(action, checked));
+    }
+  }
+
+  /**
+   * Sets a property of the specified actions to the same value.
+   * <p>
+   * In a thread safe action manager, calling this method in a thread other
+   * than the JavaFX application thread submits all the changes at once, and
+   * they are applied together in the JavaFX application thread.
+   *
+   * @param key
+   *          the key of the property.
+   * @param value
+   *          the new value of the property.
+   * @param ids
+   *          the ids of the specified actions.
+   * @throws IllegalArgumentException
+   *           if the value does not match the type of the key, e.g., it is
+   *           {@code null} while the property is of a primitive type.
+   */
+  public final <T> void setAll(ActionProperty<T> key, T value, String... ids) {
+    setAll(key, value, Arrays.asList(ids));
+  }
+
+  /**
+   * Sets a property of the specified actions to the same value.
+   * <p>
+   * In a thread safe action manager, calling this method in a thread other
+   * than the JavaFX application thread submits all the changes at once, and
+   * they are applied together in the JavaFX application thread.
+   *
+   * @param key
+   *          the key of the property.
+   * @param value
+   *          the new value of the property.
+   * @param ids
+   *          the ids of the specified actions.
+   * @throws IllegalArgumentException
+   *           if the value does not match the type of the key, e.g., it is
+   *           {@code null} while the property is of a primitive type.
+   */
+  public final <T> void setAll(ActionProperty<T> key, T value,
+      Collection<String> ids) {
+    final T checked = key.check(value);
+    final String name = key.getName();
+    for (final String id : ids) {
+      final IAction action = lookup(id);
+      if (action != null) {
+        update(id, name, () -> key.set(action, checked));
+      }
+    }
+  }
+
+  /**
+   * Sets several properties of the specified action.
+   * <p>
+   * All the values are checked before any of them is applied, so that either
+   * all or none of the properties are changed.
+   *
+   * @param id
+   *          the id of an action.
+   * @param values
+   *          the map from the keys of the properties to their new values. The
+   *          type of each value must match the type of its key.
+   * @throws IllegalArgumentException
+   *           if a value does not match the type of its key, e.g., it is
+   *           {@code null} while the property is of a primitive type.
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public final void setAll(String id, Map<ActionProperty<?>, ?> values) {
+    for (final Map.Entry<ActionProperty<?>, ?> entry : values.entrySet()) {
+      entry.getKey().check(entry.getValue());
+    }
+    final IAction action = lookup(id);
+    if (action != null) {
+      for (final Map.Entry<ActionProperty<?>, ?> entry : values.entrySet()) {
+        final ActionProperty key = entry.getKey();
+        final Object value = entry.getValue();
+        update(id, key.getName(), () -> key.set(action, value));
+      }
+    }
+  }
+
+  /**
+   * Gets the text (i.e., title) of the specified action.
+   *
+   * @param id
+   *          the id of an action.
+   * @return the text (i.e., title) of the specified action, or
+   *         {@code null} if it has none.
+   */
+  public final String getText(String id) {
+    return get(id, ActionProperty.TEXT);
+  }
+
+  /**
+   * Sets the text (i.e., title) of the specified action.
+   *
+   * @param id
+   *          the id of an action.
+   * @param text
+   *          the new text (i.e., title) to be set to the specified action, or
+   *          {@code null} to set none.
+   */
+  public final void setText(String id, @Nullable String text) {
+    set(id, ActionProperty.TEXT, text);
+  }
+
+  /**
+   * Gets the text (i.e., title) property of the specified action.
+   *
+   * @param id
+   *          the id of an action.
+   * @return the text (i.e., title) property of the specified action, or null if
+   *         no such action.
+   */
+  public final StringProperty textProperty(String id) {
+    return property(id, IAction::textProperty);
   }
 
   /**
@@ -159,13 +590,7 @@ public class ActionManager {
    *         {@code null} if it has none.
    */
   public final String getDescription(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.getDescription();
-    }
+    return get(id, ActionProperty.DESCRIPTION);
   }
 
   /**
@@ -181,12 +606,7 @@ public class ActionManager {
    *          {@code null} to set none.
    */
   public final void setDescription(String id, @Nullable String description) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setDescription(description);
-    }
+    set(id, ActionProperty.DESCRIPTION, description);
   }
 
   /**
@@ -200,13 +620,7 @@ public class ActionManager {
    * @return the description (i.e., tool tip) property of the specified action.
    */
   public final StringProperty descriptionProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.descriptionProperty();
-    }
+    return property(id, IAction::descriptionProperty);
   }
 
   /**
@@ -223,13 +637,7 @@ public class ActionManager {
    * @return the style of this action, or {@code null} if it has none.
    */
   public final String getStyle(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.getStyle();
-    }
+    return get(id, ActionProperty.STYLE);
   }
 
   /**
@@ -248,12 +656,7 @@ public class ActionManager {
    *          set none.
    */
   public final void setStyle(String id, @Nullable String style) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setStyle(style);
-    }
+    set(id, ActionProperty.STYLE, style);
   }
 
   /**
@@ -270,13 +673,7 @@ public class ActionManager {
    * @return the style property of the specified action.
    */
   public final StringProperty styleProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.styleProperty();
-    }
+    return property(id, IAction::styleProperty);
   }
 
   /**
@@ -294,13 +691,7 @@ public class ActionManager {
    *         none.
    */
   public final KeyCombination getAccelerator(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.getAccelerator();
-    }
+    return get(id, ActionProperty.ACCELERATOR);
   }
 
   /**
@@ -319,12 +710,7 @@ public class ActionManager {
    *          to set none.
    */
   public final void setAccelerator(String id, @Nullable KeyCombination accelerator) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setAccelerator(accelerator);
-    }
+    set(id, ActionProperty.ACCELERATOR, accelerator);
   }
 
   /**
@@ -341,13 +727,7 @@ public class ActionManager {
    * @return the accelerator property of the specified action.
    */
   public final ObjectProperty<KeyCombination> acceleratorProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.acceleratorProperty();
-    }
+    return property(id, IAction::acceleratorProperty);
   }
 
   /**
@@ -361,13 +741,7 @@ public class ActionManager {
    * @return the graphic of this action, or {@code null} if it has none.
    */
   public final Node getGraphic(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.getGraphic();
-    }
+    return get(id, ActionProperty.GRAPHIC);
   }
 
   /**
@@ -383,12 +757,7 @@ public class ActionManager {
    *          set none.
    */
   public final void setGraphic(String id, @Nullable Node graphic) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setGraphic(graphic);
-    }
+    set(id, ActionProperty.GRAPHIC, graphic);
   }
 
   /**
@@ -402,13 +771,7 @@ public class ActionManager {
    * @return the graphic property of the specified action.
    */
   public final ObjectProperty<Node> graphicProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.graphicProperty();
-    }
+    return property(id, IAction::graphicProperty);
   }
 
   /**
@@ -427,13 +790,7 @@ public class ActionManager {
    * @return the alignment of the specified action.
    */
   public final Pos getAlignment(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.getAlignment();
-    }
+    return get(id, ActionProperty.ALIGNMENT);
   }
 
   /**
@@ -453,12 +810,7 @@ public class ActionManager {
    *          the new alignment to be set to this action.
    */
   public final void setAlignment(String id, Pos alignment) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setAlignment(alignment);
-    }
+    set(id, ActionProperty.ALIGNMENT, alignment);
   }
 
   /**
@@ -477,13 +829,7 @@ public class ActionManager {
    * @return the alignment property of the specified action.
    */
   public final ObjectProperty<Pos> alignmentProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.alignmentProperty();
-    }
+    return property(id, IAction::alignmentProperty);
   }
 
   /**
@@ -502,13 +848,7 @@ public class ActionManager {
    * @return the content display of the specified action.
    */
   public final ContentDisplay getContentDisplayProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.getContentDisplayProperty();
-    }
+    return get(id, ActionProperty.CONTENT_DISPLAY);
   }
 
   /**
@@ -528,12 +868,7 @@ public class ActionManager {
    *          the new content display to be set to this action.
    */
   public final void setContentDisplayProperty(String id, ContentDisplay contentDisplay) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setContentDisplayProperty(contentDisplay);
-    }
+    set(id, ActionProperty.CONTENT_DISPLAY, contentDisplay);
   }
 
   /**
@@ -552,13 +887,7 @@ public class ActionManager {
    * @return the content display property of the specified action.
    */
   public final ObjectProperty<ContentDisplay> contentDisplayProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.contentDisplayProperty();
-    }
+    return property(id, IAction::contentDisplayProperty);
   }
 
   /**
@@ -577,13 +906,7 @@ public class ActionManager {
    * @return the graphic and text gap of the specified action.
    */
   public final double getGraphicTextGap(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return 0;
-    } else {
-      return action.getGraphicTextGap();
-    }
+    return get(id, ActionProperty.GRAPHIC_TEXT_GAP, 0.0);
   }
 
   /**
@@ -604,12 +927,7 @@ public class ActionManager {
    *          the new graphic and text gap to be set to this action.
    */
   public final void setGraphicTextGap(String id, double graphicTextGap) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setGraphicTextGap(graphicTextGap);
-    }
+    set(id, ActionProperty.GRAPHIC_TEXT_GAP, graphicTextGap);
   }
 
   /**
@@ -628,13 +946,7 @@ public class ActionManager {
    * @return the graphic and text gap property of the specified action.
    */
   public final DoubleProperty graphicTextGapProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.graphicTextGapProperty();
-    }
+    return property(id, IAction::graphicTextGapProperty);
   }
 
   /**
@@ -647,13 +959,7 @@ public class ActionManager {
    * @return whether this action is selected.
    */
   public final boolean isSelected(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return false;
-    } else {
-      return action.isSelected();
-    }
+    return get(id, ActionProperty.SELECTED, false);
   }
 
   /**
@@ -668,12 +974,7 @@ public class ActionManager {
    *          action.
    */
   public final void setSelected(String id, boolean selected) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setSelected(selected);
-    }
+    set(id, ActionProperty.SELECTED, selected);
   }
 
   /**
@@ -686,13 +987,7 @@ public class ActionManager {
    * @return the selected property of the specified action.
    */
   public final BooleanProperty selectedProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.selectedProperty();
-    }
+    return property(id, IAction::selectedProperty);
   }
 
   /**
@@ -708,13 +1003,7 @@ public class ActionManager {
    * @return whether this action is allow indeterminate.
    */
   public final boolean isAllowIndeterminateProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return false;
-    } else {
-      return action.isAllowIndeterminateProperty();
-    }
+    return get(id, ActionProperty.ALLOW_INDETERMINATE, false);
   }
 
   /**
@@ -733,13 +1022,8 @@ public class ActionManager {
    */
   public final void setAllowIndeterminateProperty(String id,
       boolean allowIndeterminate) {
-        final IAction action = map.get(id);
-        if (action == null) {
-          logger.error("Unknown action id: {}", id);
-        } else {
-          action.setAllowIndeterminateProperty(allowIndeterminate);
-        }
-      }
+    set(id, ActionProperty.ALLOW_INDETERMINATE, allowIndeterminate);
+  }
 
   /**
    * Gets the allow indeterminate property of the specified action.
@@ -754,13 +1038,7 @@ public class ActionManager {
    * @return the allow indeterminate property of the specified action.
    */
   public final BooleanProperty allowIndeterminateProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.allowIndeterminateProperty();
-    }
+    return property(id, IAction::allowIndeterminateProperty);
   }
 
   /**
@@ -776,13 +1054,7 @@ public class ActionManager {
    * @return whether this action is indeterminate.
    */
   public final boolean isIndeterminate(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return false;
-    } else {
-      return action.isIndeterminate();
-    }
+    return get(id, ActionProperty.INDETERMINATE, false);
   }
 
   /**
@@ -800,12 +1072,7 @@ public class ActionManager {
    *          action.
    */
   public final void setIndeterminate(String id, boolean indeterminate) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setIndeterminate(indeterminate);
-    }
+    set(id, ActionProperty.INDETERMINATE, indeterminate);
   }
 
   /**
@@ -821,13 +1088,7 @@ public class ActionManager {
    * @return the indeterminate property of the specified action.
    */
   public final BooleanProperty indeterminateProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.indeterminateProperty();
-    }
+    return property(id, IAction::indeterminateProperty);
   }
 
   /**
@@ -843,13 +1104,7 @@ public class ActionManager {
    * @return whether this action is visited.
    */
   public final boolean isVisited(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return false;
-    } else {
-      return action.isVisited();
-    }
+    return get(id, ActionProperty.VISITED, false);
   }
 
   /**
@@ -867,12 +1122,7 @@ public class ActionManager {
    *          action.
    */
   public final void setVisited(String id, boolean visited) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setVisited(visited);
-    }
+    set(id, ActionProperty.VISITED, visited);
   }
 
   /**
@@ -888,13 +1138,58 @@ public class ActionManager {
    * @return the visited property of the specified action.
    */
   public final BooleanProperty visitedProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.visitedProperty();
-    }
+    return property(id, IAction::visitedProperty);
+  }
+
+  /**
+   * Tests whether the specified action is disabled.
+   * <p>
+   * The widgets (buttons, menu items, sub-menus, etc) created by a disabled
+   * action will be disabled.
+   * <p>
+   * The default value of this property is {@code false}.
+   *
+   * @param id
+   *          the id of an action.
+   * @return whether the specified action is disabled.
+   */
+  public final boolean isDisable(String id) {
+    return get(id, ActionProperty.DISABLE, false);
+  }
+
+  /**
+   * Sets the disable property of the specified action.
+   * <p>
+   * The widgets (buttons, menu items, sub-menus, etc) created by a disabled
+   * action will be disabled.
+   * <p>
+   * The default value of this property is {@code false}.
+   *
+   * @param id
+   *          the id of an action.
+   * @param disable
+   *          the new value to be set to the disable property of the specified
+   *          action.
+   */
+  public final void setDisable(String id, boolean disable) {
+    set(id, ActionProperty.DISABLE, disable);
+  }
+
+  /**
+   * Gets the disable property of the specified action.
+   * <p>
+   * The widgets (buttons, menu items, sub-menus, etc) created by a disabled
+   * action will be disabled.
+   * <p>
+   * The default value of this property is {@code false}.
+   *
+   * @param id
+   *          the id of an action.
+   * @return the disable property of the specified action, or null if no such
+   *         action.
+   */
+  public final BooleanProperty disableProperty(String id) {
+    return property(id, IAction::disableProperty);
   }
 
   /**
@@ -910,13 +1205,7 @@ public class ActionManager {
    * @return whether this action is visible.
    */
   public final boolean isVisible(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return true;
-    } else {
-      return action.isVisible();
-    }
+    return get(id, ActionProperty.VISIBLE, true);
   }
 
   /**
@@ -934,12 +1223,7 @@ public class ActionManager {
    *          action.
    */
   public final void setVisible(String id, boolean visible) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setVisible(visible);
-    }
+    set(id, ActionProperty.VISIBLE, visible);
   }
 
   /**
@@ -955,13 +1239,7 @@ public class ActionManager {
    * @return the visible property of the specified action.
    */
   public final BooleanProperty visibleProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.visibleProperty();
-    }
+    return property(id, IAction::visibleProperty);
   }
 
 
@@ -991,13 +1269,7 @@ public class ActionManager {
    * @return whether the specified action is managed.
    */
   public boolean isManaged(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return true;
-    } else {
-      return action.isManaged();
-    }
+    return get(id, ActionProperty.MANAGED, true);
   }
 
   /**
@@ -1028,12 +1300,7 @@ public class ActionManager {
    *          action.
    */
   public void setManaged(String id, boolean managed) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setManaged(managed);
-    }
+    set(id, ActionProperty.MANAGED, managed);
   }
 
   /**
@@ -1062,13 +1329,7 @@ public class ActionManager {
    * @return the managed property of the specified action.
    */
   public BooleanProperty managedProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.managedProperty();
-    }
+    return property(id, IAction::managedProperty);
   }
 
 
@@ -1091,13 +1352,7 @@ public class ActionManager {
    * @return whether this action is mnemonic parsing.
    */
   public final boolean isMnemonicParsing(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return true;
-    } else {
-      return action.isMnemonicParsing();
-    }
+    return get(id, ActionProperty.MNEMONIC_PARSING, true);
   }
 
   /**
@@ -1121,12 +1376,7 @@ public class ActionManager {
    *          action.
    */
   public final void setMnemonicParsing(String id, boolean mnemonicParsing) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-    } else {
-      action.setMnemonicParsing(mnemonicParsing);
-    }
+    set(id, ActionProperty.MNEMONIC_PARSING, mnemonicParsing);
   }
 
   /**
@@ -1148,13 +1398,7 @@ public class ActionManager {
    * @return the mnemonic parsing property of the specified action.
    */
   public final BooleanProperty mnemonicParsingProperty(String id) {
-    final IAction action = map.get(id);
-    if (action == null) {
-      logger.error("Unknown action id: {}", id);
-      return null;
-    } else {
-      return action.mnemonicParsingProperty();
-    }
+    return property(id, IAction::mnemonicParsingProperty);
   }
 
   /**
@@ -1309,6 +1553,43 @@ public class ActionManager {
     return toolBar;
   }
 
+  /**
+   * Creates an overflow-aware tool bar from specified actions.
+   * <p>
+   * The buttons not fitting the width of the returned tool bar are moved into
+   * an overflow menu button. See {@link OverflowToolBar}.
+   *
+   * @param ids
+   *          the ids of the specified actions.
+   * @return the overflow-aware tool bar created from the specified actions.
+   */
+  public final OverflowToolBar createOverflowToolBar(String... ids) {
+    return createOverflowToolBar(Arrays.asList(ids));
+  }
+
+  /**
+   * Creates an overflow-aware tool bar from specified actions.
+   * <p>
+   * The buttons not fitting the width of the returned tool bar are moved into
+   * an overflow menu button. See {@link OverflowToolBar}.
+   *
+   * @param ids
+   *          the ids of the specified actions.
+   * @return the overflow-aware tool bar created from the specified actions.
+   */
+  public final OverflowToolBar createOverflowToolBar(Collection<String> ids) {
+    final List<IAction> actions = new ArrayList<IAction>(ids.size());
+    for (final String id : ids) {
+      final IAction action = map.get(id);
+      if (action == null) {
+        logger.error("Unknown action id: {}", id);
+      } else {
+        actions.add(action);
+      }
+    }
+    return new OverflowToolBar(actions);
+  }
+
   /**
    * Hides an action.
    * <p>
@@ -1322,8 +1603,8 @@ public class ActionManager {
     if (action == null) {
       logger.error("Unknown action id: {}", id);
     } else {
-      action.setVisible(false);
-      action.setManaged(false);
+      update(id, "visible", () -> action.setVisible(false));
+      update(id, "managed", () -> action.setManaged(false));
     }
   }
 
@@ -1340,9 +1621,30 @@ public class ActionManager {
     if (action == null) {
       logger.error("Unknown action id: {}", id);
     } else {
-      action.setVisible(true);
-      action.setManaged(true);
+      update(id, "visible", () -> action.setVisible(true));
+      update(id, "managed", () -> action.setManaged(true));
     }
   }
 
+  /**
+   * The key of the job unregistering an action, which compares the actions by
+   * identity.
+   */
+  private static final class RemovalKey {
+    private final IAction action;
+
+    RemovalKey(IAction action) {
+      this.action = action;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(action);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return (obj instanceof RemovalKey) && (((RemovalKey) obj).action == action);
+    }
+  }
 }
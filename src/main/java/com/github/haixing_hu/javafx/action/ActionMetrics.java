@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+
+import javax.annotation.Nullable;
+
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * The {@link ActionMetrics} collects the invocation statistics of the actions
+ * and notifies the {@link ActionTraceListener}s.
+ * <p>
+ * The controls created by {@link Action} and {@link ActionGroup} invoke their
+ * actions through the {@link #invoke(IAction, ActionEvent)} method of the
+ * default metrics. The metrics is disabled by default, in which case an
+ * invocation costs only a read of a volatile field, and neither the clock is
+ * read nor the statistics are updated.
+ * <p>
+ * The statistics are collected by the ids of the actions; the actions without
+ * id are only reported to the listeners.
+ *
+ * @author Haixing Hu
+ */
+public final class ActionMetrics {
+
+  private static final ActionMetrics DEFAULT = new ActionMetrics();
+
+  /**
+   * Gets the default metrics shared by all actions.
+   *
+   * @return the default metrics.
+   */
+  public static ActionMetrics getDefault() {
+    return DEFAULT;
+  }
+
+  private volatile boolean enabled;
+  private final Map<String, ActionStatistics> statistics;
+  private final List<ActionTraceListener> listeners;
+
+  /**
+   * Constructs a disabled {@link ActionMetrics}.
+   */
+  public ActionMetrics() {
+    enabled = false;
+    statistics = new ConcurrentHashMap<String, ActionStatistics>();
+    listeners = new CopyOnWriteArrayList<ActionTraceListener>();
+  }
+
+  /**
+   * Tests whether this metrics is enabled.
+   *
+   * @return {@code true} if this metrics is enabled; {@code false} otherwise.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables this metrics.
+   *
+   * @param enabled
+   *          {@code true} to enable this metrics; {@code false} to disable it.
+   *          The collected statistics are kept when this metrics is disabled.
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Adds a trace listener.
+   *
+   * @param listener
+   *          the listener to be added.
+   */
+  public void addListener(ActionTraceListener listener) {
+    listeners.add(Argument.requireNonNull("listener", listener));
+  }
+
+  /**
+   * Removes a trace listener.
+   *
+   * @param listener
+   *          the listener to be removed.
+   */
+  public void removeListener(ActionTraceListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Gets the statistics of an action.
+   *
+   * @param id
+   *          the id of an action.
+   * @return the statistics of the action, or {@code null} if the action has
+   *         not been invoked since this metrics was enabled.
+   */
+  @Nullable
+  public ActionStatistics getStatistics(String id) {
+    return statistics.get(id);
+  }
+
+  /**
+   * Gets the statistics of all invoked actions.
+   *
+   * @return the list of statistics of all invoked actions.
+   */
+  public List<ActionStatistics> getAllStatistics() {
+    return new ArrayList<ActionStatistics>(statistics.values());
+  }
+
+  /**
+   * Clears all collected statistics.
+   */
+  public void reset() {
+    statistics.clear();
+  }
+
+  /**
+   * Creates an event handler which invokes an action through this metrics.
+   *
+   * @param action
+   *          the action to be invoked.
+   * @return an event handler which invokes the specified action through this
+   *         metrics.
+   */
+  public EventHandler<ActionEvent> createInvoker(IAction action) {
+    return new Invoker(this, action);
+  }
+
+  /**
+   * Invokes an action, and records the time spent if this metrics is enabled.
+   *
+   * @param action
+   *          the action to be invoked.
+   * @param event
+   *          the action event triggering the action.
+   */
+  public void invoke(IAction action, ActionEvent event) {
+    if (! enabled) {
+      action.handle(event);
+      return;
+    }
+    for (final ActionTraceListener listener : listeners) {
+      listener.started(action, event);
+    }
+    final long start = System.nanoTime();
+    Throwable error = null;
+    try {
+      action.handle(event);
+    } catch (final RuntimeException | Error e) {
+      error = e;
+      throw e;
+    } finally {
+      final long nanos = System.nanoTime() - start;
+      final ActionStatistics stats = statisticsOf(action);
+      if (stats != null) {
+        stats.recordInvocation(nanos, error != null);
+      }
+      for (final ActionTraceListener listener : listeners) {
+        listener.finished(action, nanos, error);
+      }
+    }
+  }
+
+  /**
+   * Records the completion of the background work of an action.
+   *
+   * @param action
+   *          the action.
+   * @param nanos
+   *          the time elapsed from the submission of the work to its
+   *          completion, in nanoseconds.
+   * @param error
+   *          the exception thrown by the work, or {@code null} if none.
+   */
+  public void complete(IAction action, long nanos, @Nullable Throwable error) {
+    if (! enabled) {
+      return;
+    }
+    final ActionStatistics stats = statisticsOf(action);
+    if (stats != null) {
+      stats.recordCompletion(nanos, error != null);
+    }
+    for (final ActionTraceListener listener : listeners) {
+      listener.completed(action, nanos, error);
+    }
+  }
+
+  @Nullable
+  private ActionStatistics statisticsOf(IAction action) {
+    final String id = action.getId();
+    if (id == null) {
+      return null;
+    }
+    ActionStatistics stats = statistics.get(id);
+    if (stats == null) {
+      final ActionStatistics created = new ActionStatistics(id);
+      stats = statistics.putIfAbsent(id, created);
+      if (stats == null) {
+        stats = created;
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * The event handler invoking an action through a metrics.
+   */
+  private static final class Invoker implements EventHandler<ActionEvent> {
+    private final ActionMetrics metrics;
+    private final IAction action;
+
+    Invoker(ActionMetrics metrics, IAction action) {
+      this.metrics = metrics;
+      this.action = action;
+    }
+
+    @Override
+    public void handle(ActionEvent event) {
+      metrics.invoke(action, event);
+    }
+  }
+}
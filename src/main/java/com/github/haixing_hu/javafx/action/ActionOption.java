@@ -142,6 +142,23 @@ public interface ActionOption {
    */
   public static final int NO_ARROW = 0x00020000;
 
+  /**
+   * Indicates that the menu created from an {@link ActionGroup} should create
+   * its sub-menu items lazily, i.e., the menu items of the sub-actions will be
+   * created on the first time the menu is going to be shown.
+   * <p>
+   * This option is useful for large menu bars with deep hierarchies, since most
+   * of the sub-menus will never be opened by the user.
+   */
+  public static final int LAZY_MENU = 0x00040000;
+
+  /**
+   * Indicates that the {@code selected} properties of the sub-actions of an
+   * {@link ActionGroup} are mutually exclusive, i.e., the action group keeps
+   * an {@link ActionToggleGroup} of its sub-actions.
+   */
+  public static final int TOGGLE_GROUP = 0x00080000;
+
   /**
    * The default options for actions.
    */
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.input.KeyCombination;
+
+/**
+ * An {@link ActionProperty} is a typed key of a property of actions.
+ * <p>
+ * The keys are used by the generic accessors of the {@link ActionManager},
+ * e.g., {@link ActionManager#set(String, ActionProperty, Object)} and
+ * {@link ActionManager#setAll(ActionProperty, Object, String...)}, so that a
+ * property could be read or changed for many actions in a single call, while
+ * the type of the value is still checked by the compiler. The values are also
+ * checked at runtime by {@link #check(Object)}, so that, e.g., a {@code null}
+ * value of a property of a primitive type is rejected before it reaches any
+ * action.
+ *
+ * @param <T>
+ *          the type of the value of the property.
+ * @author Haixing Hu
+ */
+public final class ActionProperty<T> {
+
+  public static final ActionProperty<String> TEXT =
+      new ActionProperty<String>("text", String.class, true,
+          IAction::getText, IAction::setText);
+
+  public static final ActionProperty<String> DESCRIPTION =
+      new ActionProperty<String>("description", String.class, true,
+          IAction::getDescription, IAction::setDescription);
+
+  public static final ActionProperty<String> STYLE =
+      new ActionProperty<String>("style", String.class, true,
+          IAction::getStyle, IAction::setStyle);
+
+  public static final ActionProperty<KeyCombination> ACCELERATOR =
+      new ActionProperty<KeyCombination>("accelerator", KeyCombination.class,
+          true, IAction::getAccelerator, IAction::setAccelerator);
+
+  public static final ActionProperty<Node> GRAPHIC =
+      new ActionProperty<Node>("graphic", Node.class, true,
+          IAction::getGraphic, IAction::setGraphic);
+
+  public static final ActionProperty<String> ICON =
+      new ActionProperty<String>("icon", String.class, true,
+          IAction::getIcon, IAction::setIcon);
+
+  public static final ActionProperty<Double> ICON_SIZE =
+      new ActionProperty<Double>("iconSize", Double.class, false,
+          IAction::getIconSize, IAction::setIconSize);
+
+  public static final ActionProperty<Pos> ALIGNMENT =
+      new ActionProperty<Pos>("alignment", Pos.class, true,
+          IAction::getAlignment, IAction::setAlignment);
+
+  public static final ActionProperty<ContentDisplay> CONTENT_DISPLAY =
+      new ActionProperty<ContentDisplay>("contentDisplay",
+          ContentDisplay.class, true, IAction::getContentDisplayProperty,
+          IAction::setContentDisplayProperty);
+
+  public static final ActionProperty<Double> GRAPHIC_TEXT_GAP =
+      new ActionProperty<Double>("graphicTextGap", Double.class, false,
+          IAction::getGraphicTextGap, IAction::setGraphicTextGap);
+
+  public static final ActionProperty<Boolean> SELECTED =
+      new ActionProperty<Boolean>("selected", Boolean.class, false,
+          IAction::isSelected, IAction::setSelected);
+
+  public static final ActionProperty<Boolean> ALLOW_INDETERMINATE =
+      new ActionProperty<Boolean>("allowIndeterminate", Boolean.class, false,
+          IAction::isAllowIndeterminateProperty,
+          IAction::setAllowIndeterminateProperty);
+
+  public static final ActionProperty<Boolean> INDETERMINATE =
+      new ActionProperty<Boolean>("indeterminate", Boolean.class, false,
+          IAction::isIndeterminate, IAction::setIndeterminate);
+
+  public static final ActionProperty<Boolean> VISITED =
+      new ActionProperty<Boolean>("visited", Boolean.class, false,
+          IAction::isVisited, IAction::setVisited);
+
+  public static final ActionProperty<Boolean> DISABLE =
+      new ActionProperty<Boolean>("disable", Boolean.class, false,
+          IAction::isDisable, IAction::setDisable);
+
+  public static final ActionProperty<Boolean> VISIBLE =
+      new ActionProperty<Boolean>("visible", Boolean.class, false,
+          IAction::isVisible, IAction::setVisible);
+
+  public static final ActionProperty<Boolean> MANAGED =
+      new ActionProperty<Boolean>("managed", Boolean.class, false,
+          IAction::isManaged, IAction::setManaged);
+
+  public static final ActionProperty<Boolean> MNEMONIC_PARSING =
+      new ActionProperty<Boolean>("mnemonicParsing", Boolean.class, false,
+          IAction::isMnemonicParsing, IAction::setMnemonicParsing);
+
+  private final String name;
+  private final Class<T> type;
+  private final boolean nullable;
+  private final Function<IAction, T> getter;
+  private final BiConsumer<IAction, T> setter;
+
+  /**
+   * Constructs an {@link ActionProperty}.
+   *
+   * @param name
+   *          the name of the property, which must be unique among the keys.
+   * @param type
+   *          the type of the value of the property.
+   * @param nullable
+   *          whether the value of the property could be {@code null}. It must
+   *          be {@code false} if the property is of a primitive type.
+   * @param getter
+   *          the function reading the property of an action.
+   * @param setter
+   *          the function changing the property of an action.
+   */
+  public ActionProperty(String name, Class<T> type, boolean nullable,
+      Function<IAction, T> getter, BiConsumer<IAction, T> setter) {
+    this.name = name;
+    this.type = type;
+    this.nullable = nullable;
+    this.getter = getter;
+    this.setter = setter;
+  }
+
+  /**
+   * Gets the name of this property.
+   *
+   * @return the name of this property.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the type of the value of this property.
+   *
+   * @return the type of the value of this property.
+   */
+  public Class<T> getType() {
+    return type;
+  }
+
+  /**
+   * Tests whether the value of this property could be {@code null}.
+   *
+   * @return whether the value of this property could be {@code null}.
+   */
+  public boolean isNullable() {
+    return nullable;
+  }
+
+  /**
+   * Checks whether a value could be set to this property.
+   *
+   * @param value
+   *          the value to be checked.
+   * @return the value cast to the type of this property.
+   * @throws IllegalArgumentException
+   *           if the value is {@code null} while this property is not nullable,
+   *           or the value is not an instance of the type of this property.
+   */
+  public T check(Object value) {
+    if (value == null) {
+      if (! nullable) {
+        throw new IllegalArgumentException("The value of the property '"
+            + name + "' cannot be null.");
+      }
+      return null;
+    }
+    if (! type.isInstance(value)) {
+      throw new IllegalArgumentException("The value of the property '" + name
+          + "' must be a " + type.getName() + ", but was a "
+          + value.getClass().getName() + ".");
+    }
+    return type.cast(value);
+  }
+
+  /**
+   * Gets the value of this property of an action.
+   *
+   * @param action
+   *          an action.
+   * @return the value of this property of the action.
+   */
+  public T get(IAction action) {
+    return getter.apply(action);
+  }
+
+  /**
+   * Sets the value of this property of an action.
+   *
+   * @param action
+   *          an action.
+   * @param value
+   *          the new value of this property of the action.
+   */
+  public void set(IAction action, T value) {
+    setter.accept(action, value);
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+/**
+ * The invocation statistics of an action.
+ * <p>
+ * The latencies of the {@link IAction#handle(javafx.event.ActionEvent)}
+ * method, which are spent in the JavaFX application thread, are recorded
+ * separately from the latencies of the background works of the
+ * {@link AsyncAction}s, which are measured from the submission of the works to
+ * their completion.
+ *
+ * @author Haixing Hu
+ * @see ActionMetrics
+ */
+public final class ActionStatistics {
+
+  private final String id;
+  private final LatencyHistogram fxLatency;
+  private final LatencyHistogram asyncLatency;
+  private long invocations;
+  private long failures;
+
+  /**
+   * Constructs an {@link ActionStatistics}.
+   *
+   * @param id
+   *          the id of the action.
+   */
+  public ActionStatistics(String id) {
+    this.id = id;
+    this.fxLatency = new LatencyHistogram();
+    this.asyncLatency = new LatencyHistogram();
+    this.invocations = 0;
+    this.failures = 0;
+  }
+
+  /**
+   * Gets the id of the action.
+   *
+   * @return the id of the action.
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Gets the number of invocations of the action.
+   *
+   * @return the number of invocations of the action.
+   */
+  public synchronized long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * Gets the number of failed invocations of the action.
+   *
+   * @return the number of invocations of the action which threw an exception,
+   *         including the failed background works.
+   */
+  public synchronized long getFailures() {
+    return failures;
+  }
+
+  /**
+   * Gets the histogram of the latencies spent in the JavaFX application
+   * thread.
+   *
+   * @return the histogram of the latencies spent in the JavaFX application
+   *         thread.
+   */
+  public LatencyHistogram getFxLatency() {
+    return fxLatency;
+  }
+
+  /**
+   * Gets the histogram of the latencies of the background works.
+   *
+   * @return the histogram of the latencies of the background works, which is
+   *         empty if the action is not an {@link AsyncAction}.
+   */
+  public LatencyHistogram getAsyncLatency() {
+    return asyncLatency;
+  }
+
+  void recordInvocation(long nanos, boolean failed) {
+    synchronized (this) {
+      ++invocations;
+      if (failed) {
+        ++failures;
+      }
+    }
+    fxLatency.record(nanos);
+  }
+
+  void recordCompletion(long nanos, boolean failed) {
+    if (failed) {
+      synchronized (this) {
+        ++failures;
+      }
+    }
+    asyncLatency.record(nanos);
+  }
+
+  /**
+   * Clears the statistics.
+   */
+  public void clear() {
+    synchronized (this) {
+      invocations = 0;
+      failures = 0;
+    }
+    fxLatency.clear();
+    asyncLatency.clear();
+  }
+
+  @Override
+  public String toString() {
+    return id + ": invocations=" + getInvocations() + ", failures="
+        + getFailures() + ", fx=[" + fxLatency + "], async=[" + asyncLatency
+        + "]";
+  }
+}
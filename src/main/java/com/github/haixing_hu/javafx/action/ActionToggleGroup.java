@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+
+import javax.annotation.Nullable;
+
+/**
+ * An {@link ActionToggleGroup} makes the {@code selected} properties of a set
+ * of actions mutually exclusive.
+ * <p>
+ * The toggle group works on the actions rather than on the controls, so all
+ * the buttons and menu items created from the same actions, which are bound to
+ * the {@code selected} properties of the actions, share the same selection.
+ * <p>
+ * The toggle group keeps track of the selected action, so selecting an action
+ * only deselects the previously selected action, instead of iterating over all
+ * the actions of the group. Deselecting the selected action leaves the group
+ * without selection; however, clicking the selected radio menu item or radio
+ * button of an action does not deselect it.
+ *
+ * @author Haixing Hu
+ * @see ActionOption#TOGGLE_GROUP
+ */
+public final class ActionToggleGroup {
+
+  private final ReadOnlyObjectWrapper<IAction> selectedAction;
+  private final Map<IAction, Member> members;
+
+  /**
+   * Constructs an empty {@link ActionToggleGroup}.
+   */
+  public ActionToggleGroup() {
+    selectedAction = new ReadOnlyObjectWrapper<IAction>(this, "selectedAction");
+    members = new IdentityHashMap<IAction, Member>();
+  }
+
+  /**
+   * Adds an action to this toggle group.
+   * <p>
+   * If the action is selected, it becomes the selected action of this group.
+   *
+   * @param action
+   *          the action to be added.
+   */
+  public void add(IAction action) {
+    if (members.containsKey(action)) {
+      return;
+    }
+    final Member member = new Member(action);
+    members.put(action, member);
+    action.selectedProperty().addListener(member);
+    if (action.isSelected()) {
+      select(action);
+    }
+  }
+
+  /**
+   * Removes an action from this toggle group.
+   * <p>
+   * The selection of the removed action is not changed, but if it was the
+   * selected action of this group, this group will have no selection.
+   *
+   * @param action
+   *          the action to be removed.
+   */
+  public void remove(IAction action) {
+    final Member member = members.remove(action);
+    if (member != null) {
+      action.selectedProperty().removeListener(member);
+      if (selectedAction.get() == action) {
+        selectedAction.set(null);
+      }
+    }
+  }
+
+  /**
+   * Removes all actions from this toggle group.
+   */
+  public void clear() {
+    for (final Member member : members.values()) {
+      member.action.selectedProperty().removeListener(member);
+    }
+    members.clear();
+    selectedAction.set(null);
+  }
+
+  /**
+   * Tests whether an action belongs to this toggle group.
+   *
+   * @param action
+   *          an action.
+   * @return {@code true} if the action belongs to this toggle group;
+   *         {@code false} otherwise.
+   */
+  public boolean contains(IAction action) {
+    return members.containsKey(action);
+  }
+
+  /**
+   * Gets the number of actions in this toggle group.
+   *
+   * @return the number of actions in this toggle group.
+   */
+  public int size() {
+    return members.size();
+  }
+
+  /**
+   * Gets the selected action of this toggle group.
+   *
+   * @return the selected action of this toggle group, or {@code null} if none.
+   */
+  @Nullable
+  public IAction getSelectedAction() {
+    return selectedAction.get();
+  }
+
+  /**
+   * Gets the selected action property of this toggle group.
+   *
+   * @return the selected action property of this toggle group.
+   */
+  public ReadOnlyObjectProperty<IAction> selectedActionProperty() {
+    return selectedAction.getReadOnlyProperty();
+  }
+
+  /**
+   * Selects an action of this toggle group.
+   *
+   * @param action
+   *          the action to be selected, or {@code null} to clear the selection.
+   */
+  public void selectAction(@Nullable IAction action) {
+    if (action == null) {
+      final IAction previous = selectedAction.get();
+      if (previous != null) {
+        previous.setSelected(false);
+      }
+    } else if (members.containsKey(action)) {
+      action.setSelected(true);
+    }
+  }
+
+  private void select(IAction action) {
+    final IAction previous = selectedAction.get();
+    if (previous == action) {
+      return;
+    }
+    selectedAction.set(action);
+    if (previous != null) {
+      previous.setSelected(false);
+    }
+  }
+
+  /**
+   * Listens to the {@code selected} property of a member action.
+   */
+  private final class Member implements ChangeListener<Boolean> {
+    final IAction action;
+
+    Member(IAction action) {
+      this.action = action;
+    }
+
+    @Override
+    public void changed(ObservableValue<? extends Boolean> observable,
+        Boolean oldValue, Boolean newValue) {
+      if (newValue) {
+        select(action);
+      } else if (selectedAction.get() == action) {
+        selectedAction.set(null);
+      }
+    }
+  }
+}
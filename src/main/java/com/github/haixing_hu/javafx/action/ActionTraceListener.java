@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import javafx.event.ActionEvent;
+
+import javax.annotation.Nullable;
+
+/**
+ * The interface of the listeners notified of the invocations of actions.
+ * <p>
+ * The listeners are registered to the {@link ActionMetrics}, and are only
+ * notified while the metrics is enabled. All methods are called in the JavaFX
+ * application thread, so they should return quickly.
+ *
+ * @author Haixing Hu
+ */
+public interface ActionTraceListener {
+
+  /**
+   * Called before an action is invoked.
+   *
+   * @param action
+   *          the invoked action.
+   * @param event
+   *          the action event triggering the action.
+   */
+  default void started(IAction action, ActionEvent event) {}
+
+  /**
+   * Called after the {@link IAction#handle(ActionEvent)} method of an action
+   * returns or throws.
+   *
+   * @param action
+   *          the invoked action.
+   * @param nanos
+   *          the time spent in the JavaFX application thread, in nanoseconds.
+   * @param error
+   *          the exception thrown by the action, or {@code null} if none.
+   */
+  default void finished(IAction action, long nanos, @Nullable Throwable error) {}
+
+  /**
+   * Called after the background work of an {@link AsyncAction} is completed.
+   *
+   * @param action
+   *          the invoked action.
+   * @param nanos
+   *          the time elapsed from the submission of the work to its
+   *          completion, in nanoseconds.
+   * @param error
+   *          the exception thrown by the work, or {@code null} if none.
+   */
+  default void completed(IAction action, long nanos, @Nullable Throwable error) {}
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javafx.beans.binding.BooleanBinding;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.scene.control.ButtonBase;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuItem;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * An {@link AsyncAction} is an {@link Action} which performs its work in a
+ * background thread.
+ * <p>
+ * When the action is triggered, the {@link #execute(ActionEvent)} method is
+ * called in a thread of the executor of the action, and the
+ * {@link #succeeded(Object)} or {@link #failed(Throwable)} method is called in
+ * the JavaFX application thread after the work is finished.
+ * <p>
+ * While the action is running, all the buttons and menu items created from
+ * this action are disabled (regardless of the {@code disable} property of the
+ * action), and triggering the action again has no effect. Therefore, unlike
+ * the other actions, the disable property of those widgets is bound one-way,
+ * and could not be set on the widgets directly.
+ * <p>
+ * If the {@link ActionMetrics} is enabled, the time elapsed from the
+ * submission of the work to its completion is recorded as the asynchronous
+ * latency of the action.
+ *
+ * @param <V>
+ *          the type of the result of the work.
+ * @author Haixing Hu
+ */
+public abstract class AsyncAction<V> extends Action {
+
+  /**
+   * The default executor of the asynchronous actions, which runs the works in
+   * daemon threads.
+   */
+  public static final ExecutorService DEFAULT_EXECUTOR =
+      Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          final Thread thread = new Thread(runnable, "async-action");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  protected final ReadOnlyBooleanWrapper running;
+  protected final BooleanBinding disableOrRunning;
+  protected Executor executor;
+
+  /**
+   * Creates an {@link AsyncAction} use the default options.
+   */
+  public AsyncAction() {
+    this(null, ActionOption.DEFAULT);
+  }
+
+  /**
+   * Creates an {@link AsyncAction}.
+   *
+   * @param id
+   *          the id of the new action.
+   */
+  public AsyncAction(@Nullable String id) {
+    this(id, ActionOption.DEFAULT);
+  }
+
+  /**
+   * Creates an {@link AsyncAction}.
+   *
+   * @param id
+   *          the id of the new action.
+   * @param options
+   *          the options of the new action.
+   */
+  public AsyncAction(@Nullable String id, int options) {
+    this(id, options, DEFAULT_EXECUTOR);
+  }
+
+  /**
+   * Creates an {@link AsyncAction}.
+   *
+   * @param id
+   *          the id of the new action.
+   * @param options
+   *          the options of the new action.
+   * @param executor
+   *          the executor used to run the work of the new action.
+   */
+  public AsyncAction(@Nullable String id, int options, Executor executor) {
+    super(id, options);
+    this.running = new ReadOnlyBooleanWrapper(this, "running", false);
+    this.disableOrRunning = disable.or(running);
+    this.executor = Argument.requireNonNull("executor", executor);
+  }
+
+  /**
+   * Gets the executor used to run the work of this action.
+   *
+   * @return the executor used to run the work of this action.
+   */
+  public final Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Sets the executor used to run the work of this action.
+   *
+   * @param executor
+   *          the new executor used to run the work of this action.
+   */
+  public final void setExecutor(Executor executor) {
+    this.executor = Argument.requireNonNull("executor", executor);
+  }
+
+  /**
+   * Tests whether the work of this action is running.
+   *
+   * @return {@code true} if the work of this action is running; {@code false}
+   *         otherwise.
+   */
+  public final boolean isRunning() {
+    return running.get();
+  }
+
+  /**
+   * Gets the running property of this action.
+   *
+   * @return the running property of this action.
+   */
+  public final ReadOnlyBooleanProperty runningProperty() {
+    return running.getReadOnlyProperty();
+  }
+
+  @Override
+  public ButtonBase createButton() {
+    final ButtonBase button = super.createButton();
+    button.disableProperty().unbindBidirectional(disable);
+    button.disableProperty().bind(disableOrRunning);
+    return button;
+  }
+
+  @Override
+  public MenuItem createMenuItem() {
+    final MenuItem item = super.createMenuItem();
+    item.disableProperty().unbindBidirectional(disable);
+    item.disableProperty().bind(disableOrRunning);
+    return item;
+  }
+
+  @Override
+  public Menu createMenu() {
+    final Menu menu = super.createMenu();
+    menu.disableProperty().unbindBidirectional(disable);
+    menu.disableProperty().bind(disableOrRunning);
+    return menu;
+  }
+
+  /**
+   * Starts the work of this action in its executor.
+   * <p>
+   * This method must be called in the JavaFX application thread. If the work
+   * of this action is already running, calling this method has no effect.
+   */
+  @Override
+  public final void handle(ActionEvent event) {
+    if (running.get()) {
+      return;
+    }
+    running.set(true);
+    final ActionMetrics metrics = ActionMetrics.getDefault();
+    final long submitted = (metrics.isEnabled() ? System.nanoTime() : 0);
+    final Task<V> task = new Task<V>() {
+      @Override
+      protected V call() throws Exception {
+        return execute(event);
+      }
+    };
+    task.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+      @Override
+      public void handle(WorkerStateEvent e) {
+        running.set(false);
+        if (submitted != 0) {
+          metrics.complete(AsyncAction.this, System.nanoTime() - submitted, null);
+        }
+        succeeded(task.getValue());
+      }
+    });
+    task.setOnFailed(new EventHandler<WorkerStateEvent>() {
+      @Override
+      public void handle(WorkerStateEvent e) {
+        running.set(false);
+        if (submitted != 0) {
+          metrics.complete(AsyncAction.this, System.nanoTime() - submitted,
+              task.getException());
+        }
+        failed(task.getException());
+      }
+    });
+    task.setOnCancelled(new EventHandler<WorkerStateEvent>() {
+      @Override
+      public void handle(WorkerStateEvent e) {
+        running.set(false);
+      }
+    });
+    try {
+      executor.execute(task);
+    } catch (final RuntimeException e) {
+      running.set(false);
+      failed(e);
+    }
+  }
+
+  /**
+   * Performs the work of this action.
+   * <p>
+   * This method is called in a thread of the executor of this action, so it
+   * must not access the scene graph directly.
+   *
+   * @param event
+   *          the action event triggering this action.
+   * @return the result of the work.
+   * @throws Exception
+   *           if any error occurred.
+   */
+  protected abstract V execute(ActionEvent event) throws Exception;
+
+  /**
+   * Called in the JavaFX application thread after the work of this action is
+   * successfully finished.
+   * <p>
+   * The default implementation does nothing.
+   *
+   * @param result
+   *          the result of the work.
+   */
+  protected void succeeded(@Nullable V result) {
+    // do nothing
+  }
+
+  /**
+   * Called in the JavaFX application thread after the work of this action is
+   * failed.
+   * <p>
+   * The default implementation logs the error.
+   *
+   * @param error
+   *          the error occurred during the work.
+   */
+  protected void failed(Throwable error) {
+    final Logger logger = LoggerFactory.getLogger(AsyncAction.class);
+    logger.error("The action {} failed.", id, error);
+  }
+}
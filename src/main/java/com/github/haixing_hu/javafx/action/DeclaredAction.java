@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.util.Callback;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An action loaded by the {@link ActionLoader}.
+ * <p>
+ * The handler of the action is resolved on the first time the action is
+ * triggered.
+ *
+ * @author Haixing Hu
+ */
+final class DeclaredAction extends Action {
+
+  private final Callback<String, EventHandler<ActionEvent>> handlers;
+  private EventHandler<ActionEvent> handler;
+
+  DeclaredAction(String id, int options,
+      Callback<String, EventHandler<ActionEvent>> handlers) {
+    super(id, options);
+    this.handlers = handlers;
+    this.handler = null;
+  }
+
+  @Override
+  public void handle(ActionEvent event) {
+    if (handler == null) {
+      handler = handlers.call(id);
+      if (handler == null) {
+        final Logger logger = LoggerFactory.getLogger(DeclaredAction.class);
+        logger.warn("No handler for the action: {}", id);
+        return;
+      }
+    }
+    handler.handle(event);
+  }
+}
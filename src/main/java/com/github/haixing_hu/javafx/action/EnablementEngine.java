@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+
+/**
+ * An {@link EnablementEngine} computes the {@code disable} property of actions
+ * from the state of the application.
+ * <p>
+ * Each action registered to the engine declares a predicate telling whether
+ * the action is enabled, together with the observable objects the predicate
+ * depends on. When a dependency is invalidated, only the actions depending on
+ * it are marked as dirty, and all the dirty actions are re-evaluated once in
+ * a single batch scheduled on the JavaFX application thread, no matter how
+ * many times their dependencies changed in the meanwhile.
+ * <p>
+ * <b>NOTE:</b> An {@link javafx.beans.value.ObservableValue} only fires an
+ * invalidation event when it becomes invalid from valid; therefore the
+ * predicate should read the values of all its dependencies in order to
+ * receive the subsequent changes.
+ * <p>
+ * <b>NOTE:</b> This class is not thread safe and should be accessed in the
+ * JavaFX application thread.
+ *
+ * @author Haixing Hu
+ */
+public final class EnablementEngine {
+
+  private final Map<IAction, Rule> rules;
+  private final Map<Observable, List<Rule>> dependents;
+  private final List<Rule> dirty;
+  private final InvalidationListener listener;
+  private final Runnable flusher;
+  private boolean scheduled;
+
+  /**
+   * Constructs an empty {@link EnablementEngine}.
+   */
+  public EnablementEngine() {
+    rules = new IdentityHashMap<IAction, Rule>();
+    dependents = new IdentityHashMap<Observable, List<Rule>>();
+    dirty = new ArrayList<Rule>();
+    listener = new InvalidationListener() {
+      @Override
+      public void invalidated(Observable observable) {
+        markDirty(observable);
+      }
+    };
+    flusher = new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    };
+    scheduled = false;
+  }
+
+  /**
+   * Registers an action to this engine.
+   * <p>
+   * The {@code disable} property of the action is evaluated immediately. If the
+   * action has already been registered, its previous rule is replaced.
+   *
+   * @param action
+   *          the action to be registered.
+   * @param enabled
+   *          the predicate telling whether the action is enabled.
+   * @param dependencies
+   *          the observable objects the predicate depends on.
+   */
+  public void register(IAction action, BooleanSupplier enabled,
+      Observable... dependencies) {
+    unregister(action);
+    final Rule rule = new Rule(action, enabled, dependencies);
+    rules.put(action, rule);
+    for (final Observable dependency : dependencies) {
+      List<Rule> list = dependents.get(dependency);
+      if (list == null) {
+        list = new ArrayList<Rule>();
+        dependents.put(dependency, list);
+        dependency.addListener(listener);
+      }
+      list.add(rule);
+    }
+    rule.evaluate();
+  }
+
+  /**
+   * Unregisters an action from this engine.
+   * <p>
+   * The {@code disable} property of the action is left unchanged.
+   *
+   * @param action
+   *          the action to be unregistered.
+   */
+  public void unregister(IAction action) {
+    final Rule rule = rules.remove(action);
+    if (rule == null) {
+      return;
+    }
+    for (final Observable dependency : rule.dependencies) {
+      final List<Rule> list = dependents.get(dependency);
+      if (list != null) {
+        list.remove(rule);
+        if (list.isEmpty()) {
+          dependents.remove(dependency);
+          dependency.removeListener(listener);
+        }
+      }
+    }
+    if (rule.dirty) {
+      rule.dirty = false;
+      dirty.remove(rule);
+    }
+  }
+
+  /**
+   * Unregisters all actions from this engine.
+   */
+  public void clear() {
+    for (final Observable dependency : dependents.keySet()) {
+      dependency.removeListener(listener);
+    }
+    dependents.clear();
+    rules.clear();
+    dirty.clear();
+  }
+
+  /**
+   * Tests whether an action is registered to this engine.
+   *
+   * @param action
+   *          an action.
+   * @return {@code true} if the action is registered to this engine;
+   *         {@code false} otherwise.
+   */
+  public boolean isRegistered(IAction action) {
+    return rules.containsKey(action);
+  }
+
+  /**
+   * Re-evaluates all the dirty actions immediately, instead of waiting for the
+   * scheduled batch.
+   */
+  public void flush() {
+    scheduled = false;
+    //  the evaluation may invalidate other dependencies, so we must not
+    //  iterate the dirty list directly.
+    while (! dirty.isEmpty()) {
+      final Rule[] batch = dirty.toArray(new Rule[dirty.size()]);
+      dirty.clear();
+      for (final Rule rule : batch) {
+        rule.dirty = false;
+        rule.evaluate();
+      }
+    }
+  }
+
+  private void markDirty(Observable dependency) {
+    final List<Rule> list = dependents.get(dependency);
+    if (list == null) {
+      return;
+    }
+    for (final Rule rule : list) {
+      if (! rule.dirty) {
+        rule.dirty = true;
+        dirty.add(rule);
+      }
+    }
+    if ((! scheduled) && (! dirty.isEmpty())) {
+      scheduled = true;
+      Platform.runLater(flusher);
+    }
+  }
+
+  /**
+   * The enablement rule of an action.
+   */
+  private static final class Rule {
+    final IAction action;
+    final BooleanSupplier enabled;
+    final Observable[] dependencies;
+    boolean dirty;
+
+    Rule(IAction action, BooleanSupplier enabled, Observable[] dependencies) {
+      this.action = action;
+      this.enabled = enabled;
+      this.dependencies = dependencies.clone();
+      this.dirty = false;
+    }
+
+    void evaluate() {
+      action.setDisable(! enabled.getAsBoolean());
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.application.Platform;
+
+/**
+ * A {@link FxUpdateQueue} marshals the updates submitted from any thread onto
+ * the JavaFX application thread.
+ * <p>
+ * The updates are keyed, and an update replaces the pending update with the
+ * same key, so that only the last update of a key is applied when several
+ * updates of the same key are submitted before the queue is drained. All the
+ * pending updates are applied in a single {@link Platform#runLater(Runnable)}
+ * call, in the order of their last submission.
+ * <p>
+ * An update applied directly on the JavaFX application thread should
+ * {@link #cancel(Object) cancel} the pending update with the same key, which
+ * is older and would otherwise overwrite it when the queue is drained.
+ *
+ * @author Haixing Hu
+ */
+final class FxUpdateQueue {
+
+  private final Map<Object, Runnable> pending;
+  private final Runnable drainer;
+  private boolean scheduled;
+
+  FxUpdateQueue() {
+    pending = new LinkedHashMap<Object, Runnable>();
+    drainer = new Runnable() {
+      @Override
+      public void run() {
+        drain();
+      }
+    };
+    scheduled = false;
+  }
+
+  /**
+   * Submits an update.
+   *
+   * @param key
+   *          the key of the update.
+   * @param update
+   *          the update to be applied on the JavaFX application thread.
+   */
+  void submit(Object key, Runnable update) {
+    final boolean schedule;
+    synchronized (pending) {
+      //  moves the key to the end, so the updates are applied in the order of
+      //  their last submission
+      pending.remove(key);
+      pending.put(key, update);
+      schedule = (! scheduled);
+      scheduled = true;
+    }
+    if (schedule) {
+      Platform.runLater(drainer);
+    }
+  }
+
+  /**
+   * Cancels the pending update of a key.
+   *
+   * @param key
+   *          the key of the update.
+   */
+  void cancel(Object key) {
+    synchronized (pending) {
+      pending.remove(key);
+    }
+  }
+
+  private void drain() {
+    final Runnable[] updates;
+    synchronized (pending) {
+      updates = pending.values().toArray(new Runnable[pending.size()]);
+      pending.clear();
+      scheduled = false;
+    }
+    for (final Runnable update : updates) {
+      update.run();
+    }
+  }
+}
@@ -34,6 +34,7 @@ import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.Separator;
 import javafx.scene.control.ToolBar;
+import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCombination;
 
 import javax.annotation.Nullable;
@@ -298,6 +299,70 @@ public interface IAction extends EventHandler<ActionEvent> {
    */
   public ObjectProperty<Node> graphicProperty();
 
+  /**
+   * Gets the URL of the icon of this action.
+   * <p>
+   * If this action has no graphic but has an icon, each control created from
+   * this action will display the icon in its own {@link ImageView}, while the
+   * decoded image of the icon is shared through the {@link IconCache}.
+   *
+   * @return the URL of the icon of this action, or {@code null} if it has
+   *         none.
+   */
+  public String getIcon();
+
+  /**
+   * Sets the URL of the icon of this action.
+   * <p>
+   * If this action has no graphic but has an icon, each control created from
+   * this action will display the icon in its own {@link ImageView}, while the
+   * decoded image of the icon is shared through the {@link IconCache}.
+   *
+   * @param icon
+   *          the URL of the new icon to be set to this action, or {@code null}
+   *          to set none.
+   */
+  public void setIcon(@Nullable String icon);
+
+  /**
+   * Gets the icon property of this action.
+   * <p>
+   * If this action has no graphic but has an icon, each control created from
+   * this action will display the icon in its own {@link ImageView}, while the
+   * decoded image of the icon is shared through the {@link IconCache}.
+   *
+   * @return the icon property of this action.
+   */
+  public StringProperty iconProperty();
+
+  /**
+   * Gets the size of the icon of this action.
+   * <p>
+   * The default value of this property is 16.
+   *
+   * @return the size of the icon of this action, in pixels.
+   */
+  public double getIconSize();
+
+  /**
+   * Sets the size of the icon of this action.
+   * <p>
+   * The default value of this property is 16.
+   *
+   * @param iconSize
+   *          the new size of the icon of this action, in pixels.
+   */
+  public void setIconSize(double iconSize);
+
+  /**
+   * Gets the icon size property of this action.
+   * <p>
+   * The default value of this property is 16.
+   *
+   * @return the icon size property of this action.
+   */
+  public DoubleProperty iconSizeProperty();
+
   /**
    * Gets the alignment of this action.
    * <p>
@@ -577,33 +642,46 @@ public interface IAction extends EventHandler<ActionEvent> {
    */
   public BooleanProperty visitedProperty();
 
-  // /**
-  // * Tests whether this action is disabled.
-  // * <p>
-  // * The default value of this property is {@code false}.
-  // *
-  // * @return whether this action is disabled.
-  // */
-  // public boolean isDisable();
-  //
-  // /**
-  // * Sets the disable property of this action.
-  // * <p>
-  // * The default value of this property is {@code false}.
-  // *
-  // * @param disable
-  // * the new value to be set to the disable property of this action.
-  // */
-  // public void setDisable(boolean disable);
-  //
-  // /**
-  // * Gets the disable property of this action.
-  // * <p>
-  // * The default value of this property is {@code false}.
-  // *
-  // * @return the disable property of this action.
-  // */
-  // public BooleanProperty disableProperty();
+  /**
+   * Tests whether this action is disabled.
+   * <p>
+   * The widgets (buttons, menu items, sub-menus, etc) created by a disabled
+   * action will be disabled.
+   * <p>
+   * The default value of this property is {@code false}.
+   *
+   * @return whether this action is disabled.
+   */
+  public boolean isDisable();
+
+  /**
+   * Sets the disable property of this action.
+   * <p>
+   * The widgets (buttons, menu items, sub-menus, etc) created by a disabled
+   * action will be disabled.
+   * <p>
+   * The default value of this property is {@code false}.
+   *
+   * @param disable
+   *          the new value to be set to the disable property of this action.
+   */
+  public void setDisable(boolean disable);
+
+  /**
+   * Gets the disable property of this action.
+   * <p>
+   * The widgets (buttons, menu items, sub-menus, etc) created by a disabled
+   * action will be disabled. As the other properties of this action, the
+   * disable property of the created widgets is bound bidirectionally to this
+   * property, so disabling a widget directly also disables this action and
+   * all the other widgets created by it. The {@link AsyncAction} is an
+   * exception, whose widgets are bound one-way.
+   * <p>
+   * The default value of this property is {@code false}.
+   *
+   * @return the disable property of this action.
+   */
+  public BooleanProperty disableProperty();
 
   /**
    * Tests whether this action is visible.
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+
+import javax.annotation.Nullable;
+
+/**
+ * An {@link IconCache} caches the images of the icons of actions.
+ * <p>
+ * The requested size of an icon is rounded up to a size bucket, and the image
+ * of an icon is decoded only once for each size bucket. The least recently
+ * used images are evicted from the cache when the number of cached images
+ * exceeds the capacity of the cache. The evicted images are still valid for
+ * the controls using them.
+ * <p>
+ * The images are loaded in background, and an image failing to load is
+ * removed from the cache, so it is loaded again on the next request.
+ *
+ * @author Haixing Hu
+ */
+public final class IconCache {
+
+  /**
+   * The default capacity of an icon cache.
+   */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private static final int[] BUCKETS = { 16, 24, 32, 48, 64, 96, 128, 256 };
+
+  private static final IconCache DEFAULT = new IconCache(DEFAULT_CAPACITY);
+
+  /**
+   * Gets the default icon cache shared by all actions.
+   *
+   * @return the default icon cache.
+   */
+  public static IconCache getDefault() {
+    return DEFAULT;
+  }
+
+  private final Map<String, Image> images;
+  private int capacity;
+
+  /**
+   * Constructs an {@link IconCache}.
+   *
+   * @param capacity
+   *          the maximum number of images cached in the new icon cache.
+   */
+  public IconCache(int capacity) {
+    this.capacity = capacity;
+    this.images = new LinkedHashMap<String, Image>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+        return size() > IconCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Gets the capacity of this icon cache.
+   *
+   * @return the maximum number of images cached in this icon cache.
+   */
+  public synchronized int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Sets the capacity of this icon cache.
+   * <p>
+   * The least recently used images will be evicted if the number of cached
+   * images exceeds the new capacity.
+   *
+   * @param capacity
+   *          the new maximum number of images cached in this icon cache.
+   */
+  public synchronized void setCapacity(int capacity) {
+    this.capacity = capacity;
+    while (images.size() > capacity) {
+      images.remove(images.keySet().iterator().next());
+    }
+  }
+
+  /**
+   * Gets the number of images cached in this icon cache.
+   *
+   * @return the number of images cached in this icon cache.
+   */
+  public synchronized int size() {
+    return images.size();
+  }
+
+  /**
+   * Gets the image of an icon.
+   *
+   * @param url
+   *          the URL of the icon, or {@code null} if none.
+   * @param size
+   *          the requested size of the icon, in pixels. A non-positive value
+   *          means the original size of the image.
+   * @return the image of the icon, whose size is the size bucket of the
+   *         requested size; or {@code null} if the URL is {@code null}.
+   */
+  @Nullable
+  public synchronized Image get(@Nullable String url, double size) {
+    if (url == null) {
+      return null;
+    }
+    final int bucket = bucketOf(size);
+    final String key = bucket + ":" + url;
+    Image image = images.get(key);
+    if (image == null) {
+      if (bucket > 0) {
+        image = new Image(url, bucket, bucket, true, true, true);
+      } else {
+        image = new Image(url, true);
+      }
+      if (! image.isError()) {
+        final Image loading = image;
+        image.errorProperty().addListener((observable, oldValue, newValue) -> {
+          if (newValue) {
+            remove(key, loading);
+          }
+        });
+        images.put(key, image);
+      }
+    }
+    return image;
+  }
+
+  private synchronized void remove(String key, Image image) {
+    images.remove(key, image);
+  }
+
+  /**
+   * Removes all images from this icon cache.
+   */
+  public synchronized void clear() {
+    images.clear();
+  }
+
+  private static int bucketOf(double size) {
+    if (size <= 0) {
+      return 0;
+    }
+    for (final int bucket : BUCKETS) {
+      if (size <= bucket) {
+        return bucket;
+      }
+    }
+    return (int) Math.ceil(size);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+/**
+ * A {@link LatencyHistogram} records the distribution of latencies in
+ * logarithmic buckets.
+ * <p>
+ * The i-th bucket counts the latencies within [2^(i-1), 2^i) microseconds, and
+ * the first bucket counts the latencies less than one microsecond. Recording a
+ * latency neither allocates memory nor takes locks other than the monitor of
+ * the histogram.
+ *
+ * @author Haixing Hu
+ */
+public final class LatencyHistogram {
+
+  /**
+   * The number of buckets of a latency histogram.
+   */
+  public static final int BUCKETS = 32;
+
+  private final long[] counts;
+  private long count;
+  private long total;
+  private long max;
+
+  /**
+   * Constructs an empty {@link LatencyHistogram}.
+   */
+  public LatencyHistogram() {
+    counts = new long[BUCKETS];
+    count = 0;
+    total = 0;
+    max = 0;
+  }
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos
+   *          the latency in nanoseconds.
+   */
+  public synchronized void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    ++counts[bucketOf(nanos)];
+    ++count;
+    total += nanos;
+    if (nanos > max) {
+      max = nanos;
+    }
+  }
+
+  private static int bucketOf(long nanos) {
+    final int bucket = 64 - Long.numberOfLeadingZeros(nanos / 1000);
+    return (bucket < BUCKETS ? bucket : BUCKETS - 1);
+  }
+
+  /**
+   * Gets the number of recorded latencies.
+   *
+   * @return the number of recorded latencies.
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the sum of the recorded latencies.
+   *
+   * @return the sum of the recorded latencies, in nanoseconds.
+   */
+  public synchronized long getTotalNanos() {
+    return total;
+  }
+
+  /**
+   * Gets the maximum recorded latency.
+   *
+   * @return the maximum recorded latency, in nanoseconds.
+   */
+  public synchronized long getMaxNanos() {
+    return max;
+  }
+
+  /**
+   * Gets the mean of the recorded latencies.
+   *
+   * @return the mean of the recorded latencies, in nanoseconds; or 0 if no
+   *         latency was recorded.
+   */
+  public synchronized double getMeanNanos() {
+    return (count == 0 ? 0 : (double) total / count);
+  }
+
+  /**
+   * Gets an estimation of a percentile of the recorded latencies.
+   *
+   * @param percentile
+   *          the percentile, between 0 and 100.
+   * @return the upper bound of the bucket containing the specified percentile
+   *         of the recorded latencies, in nanoseconds, which is never greater
+   *         than the maximum recorded latency; or 0 if no latency was recorded.
+   */
+  public synchronized long getPercentileNanos(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    final long rank = (long) Math.ceil(count * Math.min(percentile, 100) / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      seen += counts[i];
+      if ((seen >= rank) && (seen > 0)) {
+        final long upper = (1L << i) * 1000;
+        return Math.min(upper, max);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Gets the counts of the buckets of this histogram.
+   *
+   * @return a copy of the counts of the buckets of this histogram.
+   */
+  public synchronized long[] getBucketCounts() {
+    return counts.clone();
+  }
+
+  /**
+   * Clears this histogram.
+   */
+  public synchronized void clear() {
+    for (int i = 0; i < BUCKETS; ++i) {
+      counts[i] = 0;
+    }
+    count = 0;
+    total = 0;
+    max = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "count=" + count + ", mean=" + (long) getMeanNanos() + "ns, p50="
+        + getPercentileNanos(50) + "ns, p99=" + getPercentileNanos(99)
+        + "ns, max=" + max + "ns";
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.WeakListChangeListener;
+import javafx.scene.control.MenuItem;
+
+/**
+ * A {@link MenuItemsSynchronizer} keeps the list of menu items of a control
+ * created from an {@link ActionGroup} synchronized with the list of actions of
+ * that group.
+ * <p>
+ * The changes of the list of actions are applied incrementally, i.e., only the
+ * menu items of the added actions are created, and only the menu items of the
+ * removed actions are removed. Therefore the cost of an update is proportional
+ * to the size of the change instead of the size of the list.
+ * <p>
+ * <b>NOTE:</b> the synchronizer assumes that the i-th menu item of the control
+ * is created from the i-th action of the group. Adding or removing menu items
+ * of the control directly will break this assumption.
+ * <p>
+ * The action group only holds a weak reference to the synchronizer, while the
+ * synchronizer is strongly referenced by the properties of the control, so the
+ * control could be garbage collected even if the action group is still alive.
+ *
+ * @author Haixing Hu
+ */
+final class MenuItemsSynchronizer implements ListChangeListener<IAction> {
+
+  /**
+   * The key of the synchronizer stored in the properties of the control.
+   */
+  static final String PROPERTY_KEY = MenuItemsSynchronizer.class.getName();
+
+  private final ObservableList<MenuItem> items;
+
+  private MenuItemsSynchronizer(ObservableList<MenuItem> items) {
+    this.items = items;
+  }
+
+  /**
+   * Installs a synchronizer between the list of actions and the list of menu
+   * items.
+   *
+   * @param actions
+   *          the list of actions.
+   * @param items
+   *          the list of menu items created from the list of actions.
+   * @param properties
+   *          the properties map of the control owning the menu items, which is
+   *          used to keep a strong reference to the synchronizer.
+   */
+  static void install(ObservableList<IAction> actions,
+      ObservableList<MenuItem> items, Map<Object, Object> properties) {
+    final MenuItemsSynchronizer synchronizer = new MenuItemsSynchronizer(items);
+    properties.put(PROPERTY_KEY, synchronizer);
+    actions.addListener(new WeakListChangeListener<IAction>(synchronizer));
+  }
+
+  @Override
+  public void onChanged(Change<? extends IAction> change) {
+    while (change.next()) {
+      final int from = change.getFrom();
+      final int to = change.getTo();
+      if (change.wasPermutated()) {
+        final MenuItem[] permuted = new MenuItem[to - from];
+        for (int i = from; i < to; ++i) {
+          permuted[change.getPermutation(i) - from] = items.get(i);
+        }
+        items.remove(from, to);
+        items.addAll(from, Arrays.asList(permuted));
+      } else if (! change.wasUpdated()) {
+        if (change.wasRemoved()) {
+          items.remove(from, from + change.getRemovedSize());
+        }
+        if (change.wasAdded()) {
+          final List<? extends IAction> added = change.getAddedSubList();
+          final List<MenuItem> created = new ArrayList<MenuItem>(added.size());
+          for (final IAction action : added) {
+            created.add(action.createMenuItem());
+          }
+          items.addAll(from, created);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.geometry.VPos;
+import javafx.scene.control.Control;
+import javafx.scene.control.Labeled;
+import javafx.scene.control.MenuButton;
+import javafx.scene.layout.Region;
+
+/**
+ * A tool bar created from a list of actions, which moves the buttons not
+ * fitting its width into an overflow menu button.
+ * <p>
+ * All buttons stay in the scene graph, each one wrapped in a lightweight slot;
+ * the overflowed buttons are only hidden by making their slots invisible, so
+ * the children of the tool bar are never changed during the layout. Note that
+ * the visible and managed properties of the buttons themselves are bound to
+ * their actions, and are therefore left untouched.
+ * <p>
+ * The preferred widths of the buttons are measured once their skins are
+ * created and cached, and are only measured again when the text or graphic of
+ * a button changes. The distribution of buttons is only recomputed when the
+ * width of the tool bar changes, or when a button is shown, hidden or
+ * re-measured.
+ * <p>
+ * The overflow menu button is created from an internal {@link ActionGroup};
+ * its menu items are only built from the overflowed actions when the menu is
+ * going to be shown, and the actions hidden by the {@link ActionManager} are
+ * not listed.
+ *
+ * @author Haixing Hu
+ */
+public class OverflowToolBar extends Region {
+
+  public static final String STYLE_CLASS = "tool-bar";
+
+  /**
+   * The id of the action group creating the overflow menu button.
+   */
+  public static final String OVERFLOW_ID = "__OVERFLOW__";
+
+  /**
+   * The default text of the overflow menu button.
+   */
+  public static final String OVERFLOW_TEXT = "»";
+
+  /**
+   * The default spacing between buttons.
+   */
+  public static final double DEFAULT_SPACING = 4;
+
+  private final IAction[] actions;
+  private final Control[] controls;
+  private final Slot[] slots;
+  private final double[] widths;
+  //  ends[i] is the right edge of the i-th button if it's displayed inline
+  private final double[] ends;
+  private final ActionGroup overflowGroup;
+  private final MenuButton overflowButton;
+  private double spacing;
+  private int inlineCount;
+  private double lastWidth;
+  private boolean dirty;
+
+  /**
+   * Constructs an {@link OverflowToolBar}.
+   *
+   * @param actions
+   *          the actions creating the buttons of the new tool bar.
+   */
+  public OverflowToolBar(Collection<? extends IAction> actions) {
+    this.actions = actions.toArray(new IAction[actions.size()]);
+    this.controls = new Control[this.actions.length];
+    this.slots = new Slot[this.actions.length];
+    this.widths = new double[this.actions.length];
+    this.ends = new double[this.actions.length];
+    this.overflowGroup = new ActionGroup(OVERFLOW_ID, ActionOption.MENU_BUTTON);
+    this.overflowGroup.setText(OVERFLOW_TEXT);
+    this.overflowButton = (MenuButton) overflowGroup.createButton();
+    this.overflowButton.setVisible(false);
+    this.overflowButton.setOnShowing(event -> populateOverflowGroup());
+    this.spacing = DEFAULT_SPACING;
+    this.lastWidth = -1;
+    this.dirty = true;
+    getStyleClass().add(STYLE_CLASS);
+    final InvalidationListener relayout = new InvalidationListener() {
+      @Override
+      public void invalidated(Observable observable) {
+        invalidate();
+      }
+    };
+    for (int i = 0; i < controls.length; ++i) {
+      final Control control = this.actions[i].createButton();
+      controls[i] = control;
+      slots[i] = new Slot(control);
+      widths[i] = Double.NaN;
+      final int index = i;
+      final InvalidationListener remeasure = new InvalidationListener() {
+        @Override
+        public void invalidated(Observable observable) {
+          widths[index] = Double.NaN;
+          invalidate();
+        }
+      };
+      if (control instanceof Labeled) {
+        ((Labeled) control).textProperty().addListener(remeasure);
+        ((Labeled) control).graphicProperty().addListener(remeasure);
+      }
+      control.skinProperty().addListener(remeasure);
+      control.managedProperty().addListener(relayout);
+    }
+    inlineCount = controls.length;
+    getChildren().addAll(slots);
+    getChildren().add(overflowButton);
+  }
+
+  /**
+   * Gets the spacing between buttons.
+   *
+   * @return the spacing between buttons.
+   */
+  public final double getSpacing() {
+    return spacing;
+  }
+
+  /**
+   * Sets the spacing between buttons.
+   *
+   * @param spacing
+   *          the new spacing between buttons.
+   */
+  public final void setSpacing(double spacing) {
+    this.spacing = spacing;
+    invalidate();
+  }
+
+  /**
+   * Gets the action group creating the overflow menu button.
+   *
+   * @return the action group creating the overflow menu button, whose actions
+   *         are the overflowed actions at the time the overflow menu was last
+   *         shown.
+   */
+  public final ActionGroup getOverflowGroup() {
+    return overflowGroup;
+  }
+
+  /**
+   * Gets the number of buttons displayed inline.
+   *
+   * @return the number of buttons displayed inline, the others are displayed
+   *         in the overflow menu button.
+   */
+  public final int getInlineCount() {
+    return inlineCount;
+  }
+
+  private void invalidate() {
+    dirty = true;
+    requestLayout();
+  }
+
+  private double widthOf(int i) {
+    if (Double.isNaN(widths[i])) {
+      final Control control = controls[i];
+      if (control.getSkin() == null) {
+        //  the button is not styled yet, so its width is not cached
+        return control.prefWidth(-1);
+      }
+      widths[i] = control.prefWidth(-1);
+    }
+    return widths[i];
+  }
+
+  /**
+   * Computes the number of buttons fitting the specified width, and hides the
+   * other buttons.
+   */
+  private void distribute(double width) {
+    final int n = controls.length;
+    double used = 0;
+    int count = 0;
+    for (; count < n; ++count) {
+      if (controls[count].isManaged()) {
+        final double next = (used > 0 ? used + spacing : 0) + widthOf(count);
+        if (next > width) {
+          break;
+        }
+        used = next;
+      }
+      ends[count] = used;
+    }
+    if (count < n) {
+      final double reserved = overflowButton.prefWidth(-1);
+      while ((count > 0)
+          && (((ends[count - 1] > 0) ? ends[count - 1] + spacing : 0) + reserved > width)) {
+        --count;
+      }
+    }
+    inlineCount = count;
+    for (int i = 0; i < n; ++i) {
+      slots[i].setVisible(i < count);
+    }
+    overflowButton.setVisible(count < n);
+  }
+
+  /**
+   * Fills the overflow group with the overflowed actions which are not hidden.
+   */
+  private void populateOverflowGroup() {
+    final List<IAction> overflowed = new ArrayList<IAction>();
+    for (int i = inlineCount; i < controls.length; ++i) {
+      if (controls[i].isManaged()) {
+        overflowed.add(actions[i]);
+      }
+    }
+    overflowGroup.getActions().setAll(overflowed);
+  }
+
+  @Override
+  protected void layoutChildren() {
+    final Insets insets = getInsets();
+    final double width = getWidth() - insets.getLeft() - insets.getRight();
+    final double height = getHeight() - insets.getTop() - insets.getBottom();
+    if (dirty || (width != lastWidth)) {
+      dirty = false;
+      lastWidth = width;
+      distribute(width);
+    }
+    double x = insets.getLeft();
+    final double y = insets.getTop();
+    for (int i = 0; i < inlineCount; ++i) {
+      if (controls[i].isManaged()) {
+        final double w = widthOf(i);
+        layoutInArea(slots[i], x, y, w, height, 0, HPos.LEFT, VPos.CENTER);
+        x += w + spacing;
+      }
+    }
+    if (inlineCount < controls.length) {
+      layoutInArea(overflowButton, x, y, overflowButton.prefWidth(-1), height,
+          0, HPos.LEFT, VPos.CENTER);
+    }
+  }
+
+  @Override
+  protected double computeMinWidth(double height) {
+    final Insets insets = getInsets();
+    return insets.getLeft() + insets.getRight() + overflowButton.prefWidth(-1);
+  }
+
+  @Override
+  protected double computePrefWidth(double height) {
+    final Insets insets = getInsets();
+    double result = 0;
+    for (int i = 0; i < controls.length; ++i) {
+      if (controls[i].isManaged()) {
+        result += (result > 0 ? spacing : 0) + widthOf(i);
+      }
+    }
+    return insets.getLeft() + insets.getRight() + result;
+  }
+
+  @Override
+  protected double computePrefHeight(double width) {
+    final Insets insets = getInsets();
+    double result = overflowButton.prefHeight(-1);
+    for (final Control control : controls) {
+      if (control.isManaged()) {
+        result = Math.max(result, control.prefHeight(-1));
+      }
+    }
+    return insets.getTop() + insets.getBottom() + result;
+  }
+
+  /**
+   * Gets the list of controls created from the actions of this tool bar.
+   *
+   * @return the list of controls created from the actions of this tool bar,
+   *         including the overflowed ones.
+   */
+  public final List<Control> getControls() {
+    return new ArrayList<Control>(Arrays.asList(controls));
+  }
+
+  /**
+   * The slot wrapping a button, whose visibility tells whether the button is
+   * displayed inline.
+   */
+  private static final class Slot extends Region {
+
+    private final Control control;
+
+    Slot(Control control) {
+      this.control = control;
+      getChildren().add(control);
+    }
+
+    @Override
+    protected void layoutChildren() {
+      layoutInArea(control, 0, 0, getWidth(), getHeight(), 0, HPos.LEFT,
+          VPos.CENTER);
+    }
+
+    @Override
+    protected double computeMinWidth(double height) {
+      return control.minWidth(height);
+    }
+
+    @Override
+    protected double computeMinHeight(double width) {
+      return control.minHeight(width);
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+      return control.prefWidth(height);
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+      return control.prefHeight(width);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.Objects;
+
+import javafx.beans.value.WritableValue;
+
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * A {@link PropertyEdit} records the change of the value of a property.
+ * <p>
+ * The consecutive changes of the same property are merged, i.e., the merged
+ * edit restores the value before the first change and re-applies the value
+ * after the last change.
+ *
+ * @param <T>
+ *          the type of the value of the property.
+ * @author Haixing Hu
+ */
+public final class PropertyEdit<T> implements UndoableEdit {
+
+  private static final long MEMORY_SIZE = 32;
+
+  private final WritableValue<T> property;
+  private final String name;
+  private final T oldValue;
+  private T newValue;
+
+  /**
+   * Constructs a {@link PropertyEdit}.
+   *
+   * @param name
+   *          the presentation name of the new edit.
+   * @param property
+   *          the changed property.
+   * @param oldValue
+   *          the value of the property before the change.
+   * @param newValue
+   *          the value of the property after the change.
+   */
+  public PropertyEdit(String name, WritableValue<T> property, T oldValue,
+      T newValue) {
+    this.name = Argument.requireNonNull("name", name);
+    this.property = Argument.requireNonNull("property", property);
+    this.oldValue = oldValue;
+    this.newValue = newValue;
+  }
+
+  @Override
+  public void undo() {
+    property.setValue(oldValue);
+  }
+
+  @Override
+  public void redo() {
+    property.setValue(newValue);
+  }
+
+  @Override
+  public String getPresentationName() {
+    return name;
+  }
+
+  @Override
+  public long getMemorySize() {
+    return MEMORY_SIZE;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean merge(UndoableEdit edit) {
+    if (! (edit instanceof PropertyEdit)) {
+      return false;
+    }
+    final PropertyEdit<?> other = (PropertyEdit<?>) edit;
+    if ((other.property != property) || (! Objects.equals(other.oldValue, newValue))) {
+      return false;
+    }
+    newValue = ((PropertyEdit<T>) other).newValue;
+    return true;
+  }
+}
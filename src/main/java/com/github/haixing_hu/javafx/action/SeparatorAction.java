@@ -157,6 +157,36 @@ public class SeparatorAction implements IAction {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public String getIcon() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setIcon(String icon) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public StringProperty iconProperty() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getIconSize() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setIconSize(double iconSize) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public DoubleProperty iconSizeProperty() {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public Pos getAlignment() {
     throw new UnsupportedOperationException();
@@ -263,6 +293,21 @@ public class SeparatorAction implements IAction {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public boolean isDisable() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void setDisable(boolean disable) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public BooleanProperty disableProperty() {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public boolean isVisible() {
     throw new UnsupportedOperationException();
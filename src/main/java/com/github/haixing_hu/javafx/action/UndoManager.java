@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.event.ActionEvent;
+import javafx.scene.input.KeyCombination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * An {@link UndoManager} manages the history of {@link UndoableEdit}s.
+ * <p>
+ * The history is bounded both by the number of edits and by the sum of the
+ * estimated memory sizes of the edits; when either bound is exceeded, the
+ * oldest edits are evicted. An edit added within the merge window after the
+ * previous edit is offered to the previous edit by calling its
+ * {@link UndoableEdit#merge(UndoableEdit)} method, so that the consecutive
+ * small edits are stored as one edit.
+ * <p>
+ * An {@link UndoManager} provides an undo action and a redo action, whose
+ * {@code disable} properties and texts are set by listeners whenever the state
+ * of the history changes, so the buttons and menu items created from them are
+ * updated automatically. The properties of the actions are not bound, so they
+ * may still be set through an {@link ActionManager}; such a setting lasts
+ * until the next change of the history.
+ * <p>
+ * <b>NOTE:</b> an {@link UndoManager} should only be accessed in the JavaFX
+ * application thread.
+ *
+ * @author Haixing Hu
+ */
+public final class UndoManager {
+
+  /**
+   * The id of the undo action.
+   */
+  public static final String UNDO_ID = "undo";
+
+  /**
+   * The id of the redo action.
+   */
+  public static final String REDO_ID = "redo";
+
+  /**
+   * The default maximum number of edits in the history.
+   */
+  public static final int DEFAULT_LIMIT = 1000;
+
+  /**
+   * The default maximum memory size of the edits in the history, in bytes.
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 16L * 1024 * 1024;
+
+  /**
+   * The default merge window, in milliseconds.
+   */
+  public static final long DEFAULT_MERGE_WINDOW = 1000;
+
+  private static final String UNDO_TEXT = "_Undo";
+  private static final String REDO_TEXT = "_Redo";
+
+  private final Deque<UndoableEdit> undoStack;
+  private final Deque<UndoableEdit> redoStack;
+  private final ReadOnlyBooleanWrapper canUndo;
+  private final ReadOnlyBooleanWrapper canRedo;
+  private final ReadOnlyStringWrapper undoText;
+  private final ReadOnlyStringWrapper redoText;
+  private final Action undoAction;
+  private final Action redoAction;
+  private int limit;
+  private long memoryBudget;
+  private long mergeWindow;
+  private long memorySize;
+  private long lastAddTime;
+  private boolean mergeable;
+
+  /**
+   * Constructs an empty {@link UndoManager}, whose undo and redo actions have
+   * the ids {@link #UNDO_ID} and {@link #REDO_ID}.
+   */
+  public UndoManager() {
+    this(UNDO_ID, REDO_ID);
+  }
+
+  /**
+   * Constructs an empty {@link UndoManager}.
+   *
+   * @param undoId
+   *          the id of the undo action of the new manager.
+   * @param redoId
+   *          the id of the redo action of the new manager.
+   */
+  public UndoManager(String undoId, String redoId) {
+    undoStack = new ArrayDeque<UndoableEdit>();
+    redoStack = new ArrayDeque<UndoableEdit>();
+    canUndo = new ReadOnlyBooleanWrapper(this, "canUndo", false);
+    canRedo = new ReadOnlyBooleanWrapper(this, "canRedo", false);
+    undoText = new ReadOnlyStringWrapper(this, "undoText", UNDO_TEXT);
+    redoText = new ReadOnlyStringWrapper(this, "redoText", REDO_TEXT);
+    limit = DEFAULT_LIMIT;
+    memoryBudget = DEFAULT_MEMORY_BUDGET;
+    mergeWindow = DEFAULT_MERGE_WINDOW;
+    memorySize = 0;
+    lastAddTime = 0;
+    mergeable = false;
+    undoAction = new Action(undoId, ActionOption.BUTTON | ActionOption.MENU_ITEM) {
+      @Override
+      public void handle(ActionEvent event) {
+        undo();
+      }
+    };
+    undoAction.setAccelerator(KeyCombination.valueOf("Shortcut+Z"));
+    undoAction.setText(UNDO_TEXT);
+    undoAction.setDisable(true);
+    undoText.addListener((observable, oldValue, newValue) -> undoAction.setText(newValue));
+    canUndo.addListener((observable, oldValue, newValue) -> undoAction.setDisable(! newValue));
+    redoAction = new Action(redoId, ActionOption.BUTTON | ActionOption.MENU_ITEM) {
+      @Override
+      public void handle(ActionEvent event) {
+        redo();
+      }
+    };
+    redoAction.setAccelerator(KeyCombination.valueOf("Shortcut+Shift+Z"));
+    redoAction.setText(REDO_TEXT);
+    redoAction.setDisable(true);
+    redoText.addListener((observable, oldValue, newValue) -> redoAction.setText(newValue));
+    canRedo.addListener((observable, oldValue, newValue) -> redoAction.setDisable(! newValue));
+  }
+
+  /**
+   * Gets the undo action of this manager.
+   *
+   * @return the undo action of this manager.
+   */
+  public Action getUndoAction() {
+    return undoAction;
+  }
+
+  /**
+   * Gets the redo action of this manager.
+   *
+   * @return the redo action of this manager.
+   */
+  public Action getRedoAction() {
+    return redoAction;
+  }
+
+  /**
+   * Gets the maximum number of edits in the history.
+   *
+   * @return the maximum number of edits in the history.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Sets the maximum number of edits in the history.
+   *
+   * @param limit
+   *          the new maximum number of edits in the history.
+   */
+  public void setLimit(int limit) {
+    this.limit = limit;
+    trim();
+  }
+
+  /**
+   * Gets the maximum memory size of the edits in the history.
+   *
+   * @return the maximum memory size of the edits in the history, in bytes.
+   */
+  public long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  /**
+   * Sets the maximum memory size of the edits in the history.
+   *
+   * @param memoryBudget
+   *          the new maximum memory size of the edits in the history, in
+   *          bytes.
+   */
+  public void setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+    trim();
+  }
+
+  /**
+   * Gets the merge window.
+   *
+   * @return the maximum time between two edits to be merged, in milliseconds.
+   */
+  public long getMergeWindow() {
+    return mergeWindow;
+  }
+
+  /**
+   * Sets the merge window.
+   *
+   * @param mergeWindow
+   *          the new maximum time between two edits to be merged, in
+   *          milliseconds. A non-positive value disables merging.
+   */
+  public void setMergeWindow(long mergeWindow) {
+    this.mergeWindow = mergeWindow;
+  }
+
+  /**
+   * Gets the estimated memory size of the edits in the history.
+   *
+   * @return the estimated memory size of the edits in the history, in bytes.
+   */
+  public long getMemorySize() {
+    return memorySize;
+  }
+
+  /**
+   * Gets the number of undoable edits.
+   *
+   * @return the number of undoable edits.
+   */
+  public int getUndoCount() {
+    return undoStack.size();
+  }
+
+  /**
+   * Gets the number of redoable edits.
+   *
+   * @return the number of redoable edits.
+   */
+  public int getRedoCount() {
+    return redoStack.size();
+  }
+
+  public boolean canUndo() {
+    return canUndo.get();
+  }
+
+  public ReadOnlyBooleanProperty canUndoProperty() {
+    return canUndo.getReadOnlyProperty();
+  }
+
+  public boolean canRedo() {
+    return canRedo.get();
+  }
+
+  public ReadOnlyBooleanProperty canRedoProperty() {
+    return canRedo.getReadOnlyProperty();
+  }
+
+  public String getUndoText() {
+    return undoText.get();
+  }
+
+  public ReadOnlyStringProperty undoTextProperty() {
+    return undoText.getReadOnlyProperty();
+  }
+
+  public String getRedoText() {
+    return redoText.get();
+  }
+
+  public ReadOnlyStringProperty redoTextProperty() {
+    return redoText.getReadOnlyProperty();
+  }
+
+  /**
+   * Adds an edit to the history.
+   * <p>
+   * All the redoable edits are discarded. If the edit is added within the
+   * merge window after the previous edit, and the previous edit merges it, the
+   * edit is not added to the history.
+   *
+   * @param edit
+   *          the edit to be added.
+   */
+  public void addEdit(UndoableEdit edit) {
+    Argument.requireNonNull("edit", edit);
+    final long now = System.currentTimeMillis();
+    for (final UndoableEdit discarded : redoStack) {
+      memorySize -= discarded.getMemorySize();
+    }
+    redoStack.clear();
+    final UndoableEdit last = undoStack.peekLast();
+    if (mergeable && (last != null) && (now - lastAddTime <= mergeWindow)) {
+      final long before = last.getMemorySize();
+      if (last.merge(edit)) {
+        memorySize += last.getMemorySize() - before;
+        lastAddTime = now;
+        trim();
+        return;
+      }
+    }
+    undoStack.addLast(edit);
+    memorySize += edit.getMemorySize();
+    lastAddTime = now;
+    mergeable = true;
+    trim();
+  }
+
+  /**
+   * Prevents the next added edit from being merged into the previous edit,
+   * e.g., when the caret of a text editor is moved.
+   */
+  public void breakMerge() {
+    mergeable = false;
+  }
+
+  /**
+   * Undoes the last edit.
+   * <p>
+   * If undoing the edit throws an exception, the whole history is discarded,
+   * since the state of the edited document is unknown.
+   */
+  public void undo() {
+    final UndoableEdit edit = undoStack.pollLast();
+    if (edit == null) {
+      return;
+    }
+    mergeable = false;
+    try {
+      edit.undo();
+    } catch (final RuntimeException e) {
+      final Logger logger = LoggerFactory.getLogger(UndoManager.class);
+      logger.error("Failed to undo the edit: {}", edit.getPresentationName(), e);
+      clear();
+      return;
+    }
+    redoStack.addLast(edit);
+    update();
+  }
+
+  /**
+   * Redoes the last undone edit.
+   * <p>
+   * If redoing the edit throws an exception, the whole history is discarded,
+   * since the state of the edited document is unknown.
+   */
+  public void redo() {
+    final UndoableEdit edit = redoStack.pollLast();
+    if (edit == null) {
+      return;
+    }
+    mergeable = false;
+    try {
+      edit.redo();
+    } catch (final RuntimeException e) {
+      final Logger logger = LoggerFactory.getLogger(UndoManager.class);
+      logger.error("Failed to redo the edit: {}", edit.getPresentationName(), e);
+      clear();
+      return;
+    }
+    undoStack.addLast(edit);
+    update();
+  }
+
+  /**
+   * Discards all edits in the history.
+   */
+  public void clear() {
+    undoStack.clear();
+    redoStack.clear();
+    memorySize = 0;
+    mergeable = false;
+    update();
+  }
+
+  /**
+   * Evicts the oldest undoable edits, and then the redoable edits farthest
+   * from the current state, until the history fits the limit and the memory
+   * budget. The last undoable edit is never evicted.
+   */
+  private void trim() {
+    while ((undoStack.size() + redoStack.size() > limit)
+        || (memorySize > memoryBudget)) {
+      if (undoStack.size() > 1) {
+        memorySize -= undoStack.pollFirst().getMemorySize();
+      } else if (! redoStack.isEmpty()) {
+        memorySize -= redoStack.pollFirst().getMemorySize();
+      } else {
+        break;
+      }
+    }
+    update();
+  }
+
+  private void update() {
+    final UndoableEdit undoEdit = undoStack.peekLast();
+    final UndoableEdit redoEdit = redoStack.peekLast();
+    canUndo.set(undoEdit != null);
+    canRedo.set(redoEdit != null);
+    undoText.set(undoEdit == null ? UNDO_TEXT
+                                  : UNDO_TEXT + " " + undoEdit.getPresentationName());
+    redoText.set(redoEdit == null ? REDO_TEXT
+                                  : REDO_TEXT + " " + redoEdit.getPresentationName());
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+import javafx.event.ActionEvent;
+
+import javax.annotation.Nullable;
+
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * An {@link UndoableAction} is an {@link Action} whose work could be undone.
+ * <p>
+ * When the action is triggered, the {@link #perform(ActionEvent)} method is
+ * called to do the work, and the returned {@link UndoableEdit} is added to the
+ * {@link UndoManager} of the action.
+ *
+ * @author Haixing Hu
+ */
+public abstract class UndoableAction extends Action {
+
+  protected final UndoManager undoManager;
+
+  /**
+   * Creates an {@link UndoableAction}.
+   *
+   * @param id
+   *          the id of the new action.
+   * @param undoManager
+   *          the undo manager recording the edits of the new action.
+   */
+  public UndoableAction(@Nullable String id, UndoManager undoManager) {
+    this(id, ActionOption.DEFAULT, undoManager);
+  }
+
+  /**
+   * Creates an {@link UndoableAction}.
+   *
+   * @param id
+   *          the id of the new action.
+   * @param options
+   *          the options of the new action.
+   * @param undoManager
+   *          the undo manager recording the edits of the new action.
+   */
+  public UndoableAction(@Nullable String id, int options,
+      UndoManager undoManager) {
+    super(id, options);
+    this.undoManager = Argument.requireNonNull("undoManager", undoManager);
+  }
+
+  /**
+   * Gets the undo manager recording the edits of this action.
+   *
+   * @return the undo manager recording the edits of this action.
+   */
+  public final UndoManager getUndoManager() {
+    return undoManager;
+  }
+
+  @Override
+  public final void handle(ActionEvent event) {
+    final UndoableEdit edit = perform(event);
+    if (edit != null) {
+      undoManager.addEdit(edit);
+    }
+  }
+
+  /**
+   * Performs the work of this action.
+   *
+   * @param event
+   *          the action event triggering this action.
+   * @return the edit reverting the work, or {@code null} if nothing was
+   *         changed.
+   */
+  @Nullable
+  protected abstract UndoableEdit perform(ActionEvent event);
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */package com.github.haixing_hu.javafx.action;
+
+/**
+ * An {@link UndoableEdit} is an entry of the history of an {@link UndoManager}.
+ * <p>
+ * An edit should only store the minimal information needed to revert and
+ * re-apply the change, e.g., the changed range of a document rather than a
+ * copy of the whole document, since the history is bounded by the estimated
+ * memory sizes of its edits.
+ *
+ * @author Haixing Hu
+ */
+public interface UndoableEdit {
+
+  /**
+   * Reverts this edit.
+   */
+  public void undo();
+
+  /**
+   * Re-applies this edit.
+   */
+  public void redo();
+
+  /**
+   * Gets the presentation name of this edit.
+   *
+   * @return the presentation name of this edit, e.g., "Typing", which is
+   *         displayed in the texts of the undo and redo actions.
+   */
+  public String getPresentationName();
+
+  /**
+   * Gets the estimated memory size of this edit.
+   *
+   * @return the estimated number of bytes occupied by this edit.
+   */
+  public long getMemorySize();
+
+  /**
+   * Tries to merge a subsequent edit into this edit.
+   * <p>
+   * The consecutive small edits, e.g., the insertions of characters typed one
+   * by one, should be merged into one edit, so that they are undone at once
+   * and stored compactly.
+   *
+   * @param edit
+   *          the edit performed right after this edit.
+   * @return {@code true} if the specified edit was merged into this edit, in
+   *         which case it will not be added to the history; {@code false}
+   *         otherwise.
+   */
+  public boolean merge(UndoableEdit edit);
+}
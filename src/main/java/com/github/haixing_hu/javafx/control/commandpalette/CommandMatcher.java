@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.haixing_hu.javafx.control.commandpalette;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import com.github.haixing_hu.javafx.action.ActionGroup;
+import com.github.haixing_hu.javafx.action.ActionIndex;
+import com.github.haixing_hu.javafx.action.ActionIndexListener;
+import com.github.haixing_hu.javafx.action.IAction;
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * A {@link CommandMatcher} finds the actions of an {@link ActionIndex} fuzzily
+ * matching a query, and ranks them by their recent usages.
+ * <p>
+ * The more characters of the query appear in the lower-cased text (without
+ * mnemonic characters) and id of an action in the same order, the higher the
+ * action is ranked. The consecutive matched characters and the characters
+ * matched at the beginning of words get higher scores. The actions found by
+ * {@link ActionIndex#search(String)}, e.g., whose words match the words of the
+ * query in another order, are also matched.
+ * <p>
+ * The search keys of the actions are precomputed, together with the bit masks
+ * of their characters, which are used to skip the actions missing some
+ * characters of the query without scoring them. The keys are updated
+ * incrementally when an action is added to, removed from, or changed in the
+ * index. The matcher should be {@link #dispose() disposed} if it is no longer
+ * used while the index is still used.
+ *
+ * @author Haixing Hu
+ */
+public class CommandMatcher {
+
+  private static final int SCORE_MATCH = 1;
+  private static final int SCORE_CONSECUTIVE = 4;
+  private static final int SCORE_WORD_START = 8;
+  private static final int SCORE_KEY_START = 12;
+  private static final int SCORE_USAGE = 6;
+  private static final int RECENT_SIZE = 16;
+
+  private final ActionIndex index;
+  private final ActionIndexListener listener;
+  private final Map<IAction, Key> keys;
+  private final Map<String, IAction> actions;
+  private final Map<String, Integer> usages;
+  private final List<String> recent;
+
+  /**
+   * Constructs a {@link CommandMatcher}.
+   *
+   * @param index
+   *          the index of the actions to be matched.
+   */
+  public CommandMatcher(ActionIndex index) {
+    this.index = Argument.requireNonNull("index", index);
+    keys = new IdentityHashMap<IAction, Key>();
+    actions = new HashMap<String, IAction>();
+    usages = new HashMap<String, Integer>();
+    recent = new ArrayList<String>();
+    listener = new ActionIndexListener() {
+      @Override
+      public void actionAdded(IAction action) {
+        put(action);
+      }
+
+      @Override
+      public void actionRemoved(IAction action) {
+        delete(action);
+      }
+
+      @Override
+      public void actionChanged(IAction action) {
+        put(action);
+      }
+    };
+    //  locks the index, so no change is missed between the listener
+    //  registration and the initial population of the keys
+    synchronized (index) {
+      index.addListener(listener);
+      for (final IAction action : index.getAll()) {
+        put(action);
+      }
+    }
+  }
+
+  /**
+   * Stops tracking the changes of the index, and discards the search keys.
+   */
+  public void dispose() {
+    index.removeListener(listener);
+    synchronized (this) {
+      keys.clear();
+      actions.clear();
+    }
+  }
+
+  /**
+   * Records a usage of an action, which raises its rank in the subsequent
+   * matches.
+   *
+   * @param action
+   *          the used action.
+   */
+  public synchronized void recordUsage(IAction action) {
+    final String id = action.getId();
+    if (id == null) {
+      return;
+    }
+    final Integer count = usages.get(id);
+    usages.put(id, (count == null ? 1 : count + 1));
+    recent.remove(id);
+    recent.add(0, id);
+    if (recent.size() > RECENT_SIZE) {
+      recent.remove(RECENT_SIZE);
+    }
+  }
+
+  /**
+   * Gets the ids of the recently used actions.
+   *
+   * @return the ids of the recently used actions, the most recently used
+   *         first.
+   */
+  public synchronized List<String> getRecentIds() {
+    return new ArrayList<String>(recent);
+  }
+
+  /**
+   * Finds the actions best matching a query.
+   * <p>
+   * The {@link ActionGroup}s, the actions without text, and the disabled or
+   * invisible actions are ignored.
+   *
+   * @param query
+   *          the query. If it is empty, the recently used actions are returned.
+   * @param limit
+   *          the maximum number of returned actions.
+   * @return the list of best matched actions, in the descending order of their
+   *         scores.
+   */
+  public List<IAction> match(String query, int limit) {
+    final String normalized = query.trim().toLowerCase();
+    //  the index is searched before locking this matcher, since the index
+    //  calls back this matcher while it is locked
+    final List<IAction> indexed = (normalized.isEmpty()
+                                   ? Collections.<IAction>emptyList()
+                                   : index.search(normalized));
+    final PriorityQueue<Candidate> heap = new PriorityQueue<Candidate>(limit + 1);
+    synchronized (this) {
+      if (normalized.isEmpty()) {
+        for (int i = 0; i < recent.size(); ++i) {
+          final IAction action = actions.get(recent.get(i));
+          if ((action != null) && isAvailable(action)) {
+            offer(heap, limit, RECENT_SIZE - i, action);
+          }
+        }
+      } else {
+        final char[] q = normalized.toCharArray();
+        final long mask = maskOf(q);
+        final Set<IAction> found = Collections.newSetFromMap(
+            new IdentityHashMap<IAction, Boolean>());
+        found.addAll(indexed);
+        for (final Map.Entry<IAction, Key> entry : keys.entrySet()) {
+          final IAction action = entry.getKey();
+          final Key key = entry.getValue();
+          int score = ((key.mask & mask) == mask ? score(q, key.chars) : 0);
+          if ((score == 0) && found.contains(action)) {
+            score = SCORE_MATCH;
+          }
+          if ((score > 0) && isAvailable(action)) {
+            offer(heap, limit, score + usageScore(action), action);
+          }
+        }
+      }
+    }
+    final List<IAction> result = new ArrayList<IAction>(heap.size());
+    while (! heap.isEmpty()) {
+      result.add(heap.poll().action);
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  private synchronized void put(IAction action) {
+    final String text = action.getText();
+    if ((action instanceof ActionGroup) || (text == null)) {
+      delete(action);
+      return;
+    }
+    final char[] chars = computeKey(text, action.getId());
+    keys.put(action, new Key(chars, maskOf(chars)));
+    actions.put(action.getId(), action);
+  }
+
+  private synchronized void delete(IAction action) {
+    if ((keys.remove(action) != null)
+        && (actions.get(action.getId()) == action)) {
+      actions.remove(action.getId());
+    }
+  }
+
+  private static void offer(PriorityQueue<Candidate> heap, int limit, int score,
+      IAction action) {
+    if (heap.size() < limit) {
+      heap.add(new Candidate(score, action));
+    } else if ((limit > 0) && (heap.peek().score < score)) {
+      heap.poll();
+      heap.add(new Candidate(score, action));
+    }
+  }
+
+  private static boolean isAvailable(IAction action) {
+    return (! action.isDisable()) && action.isVisible();
+  }
+
+  private int usageScore(IAction action) {
+    final Integer count = usages.get(action.getId());
+    if (count == null) {
+      return 0;
+    }
+    final int pos = recent.indexOf(action.getId());
+    final int recency = (pos < 0 ? 0 : RECENT_SIZE - pos);
+    return (SCORE_USAGE * (32 - Integer.numberOfLeadingZeros(count))) + recency;
+  }
+
+  /**
+   * Computes the fuzzy match score of a query against a key.
+   *
+   * @return the score, or 0 if the query does not match the key.
+   */
+  private static int score(char[] query, char[] key) {
+    int score = 0;
+    int j = 0;
+    int last = -2;
+    for (int i = 0; i < query.length; ++i) {
+      final char ch = query[i];
+      if (ch == ' ') {
+        continue;
+      }
+      while ((j < key.length) && (key[j] != ch)) {
+        ++j;
+      }
+      if (j == key.length) {
+        return 0;
+      }
+      score += SCORE_MATCH;
+      if (j == 0) {
+        score += SCORE_KEY_START;
+      } else if (! Character.isLetterOrDigit(key[j - 1])) {
+        score += SCORE_WORD_START;
+      }
+      if (j == last + 1) {
+        score += SCORE_CONSECUTIVE;
+      }
+      last = j;
+      ++j;
+    }
+    return score;
+  }
+
+  /**
+   * Computes the bit mask of the characters, except the spaces. A key
+   * containing all characters of a query has all bits of the mask of the
+   * query.
+   */
+  private static long maskOf(char[] chars) {
+    long mask = 0;
+    for (final char ch : chars) {
+      if (ch != ' ') {
+        mask |= (1L << (ch & 63));
+      }
+    }
+    return mask;
+  }
+
+  private static char[] computeKey(String text, String id) {
+    final StringBuilder builder = new StringBuilder(text.length()
+        + (id == null ? 0 : id.length() + 1));
+    for (int i = 0; i < text.length(); ++i) {
+      final char ch = text.charAt(i);
+      if (ch != '_') {
+        builder.append(Character.toLowerCase(ch));
+      }
+    }
+    if (id != null) {
+      builder.append(' ').append(id.toLowerCase());
+    }
+    final char[] key = new char[builder.length()];
+    builder.getChars(0, key.length, key, 0);
+    return key;
+  }
+
+  /**
+   * The precomputed search key of an action.
+   */
+  private static final class Key {
+    final char[] chars;
+    final long mask;
+
+    Key(char[] chars, long mask) {
+      this.chars = chars;
+      this.mask = mask;
+    }
+  }
+
+  /**
+   * A matched action and its score.
+   */
+  private static final class Candidate implements Comparable<Candidate> {
+    final int score;
+    final IAction action;
+
+    Candidate(int score, IAction action) {
+      this.score = score;
+      this.action = action;
+    }
+
+    @Override
+    public int compareTo(Candidate other) {
+      return Integer.compare(score, other.score);
+    }
+  }
+}
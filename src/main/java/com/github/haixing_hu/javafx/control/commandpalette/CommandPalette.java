@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.haixing_hu.javafx.control.commandpalette;
+
+import java.util.List;
+
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Skin;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+import javafx.util.StringConverter;
+
+import com.github.haixing_hu.javafx.action.ActionIndex;
+import com.github.haixing_hu.javafx.action.ActionManager;
+import com.github.haixing_hu.javafx.action.ActionMetrics;
+import com.github.haixing_hu.javafx.action.IAction;
+import com.github.haixing_hu.javafx.control.textfield.AutoCompletePopup;
+import com.github.haixing_hu.javafx.control.textfield.AutoCompletePopupSkin;
+import com.github.haixing_hu.javafx.control.textfield.SearchBox;
+import com.github.haixing_hu.lang.Argument;
+
+/**
+ * A command palette is a search box which lets the user find and execute any
+ * action registered in an {@link ActionManager}.
+ * <p>
+ * The matched actions are displayed in an {@link AutoCompletePopup}, ranked by
+ * the fuzzy match of their texts and ids against the user input and by their
+ * recent usages. Choosing an action from the popup invokes its
+ * {@link IAction#handle(ActionEvent)} method.
+ * <p>
+ * The search keys of the actions are precomputed by a {@link CommandMatcher}
+ * from the {@link ActionIndex} of the action manager, and are kept up to date
+ * as the actions are added, removed or changed. An empty input displays the
+ * recently used actions.
+ *
+ * @author Haixing Hu
+ */
+public class CommandPalette extends SearchBox {
+
+  public static final String STYLE_CLASS = "command-palette";
+
+  public static final String DEFAULT_PROMPT_TEXT = "Type a command";
+
+  /**
+   * The default accelerator used to focus a command palette.
+   */
+  public static final KeyCombination DEFAULT_ACCELERATOR =
+      KeyCombination.valueOf("Shortcut+Shift+P");
+
+  /**
+   * The default maximum number of displayed actions.
+   */
+  public static final int DEFAULT_LIMIT = 20;
+
+  private final ActionManager manager;
+  private final CommandMatcher matcher;
+  private final AutoCompletePopup<IAction> popup;
+  private int limit;
+
+  /**
+   * Constructs a {@link CommandPalette}.
+   *
+   * @param manager
+   *          the action manager whose actions are searched by the new palette.
+   */
+  public CommandPalette(ActionManager manager) {
+    super();
+    this.manager = Argument.requireNonNull("manager", manager);
+    this.matcher = new CommandMatcher(manager.getIndex());
+    this.popup = new AutoCompletePopup<IAction>();
+    this.limit = DEFAULT_LIMIT;
+    getStyleClass().add(STYLE_CLASS);
+    setPromptText(DEFAULT_PROMPT_TEXT);
+    popup.setConverter(new ActionConverter());
+    popup.setOnSuggestion(event -> execute(event.getSuggestion()));
+    textProperty().addListener((observable, oldValue, newValue) -> {
+      if (isFocused()) {
+        updateSuggestions(newValue);
+      }
+    });
+    focusedProperty().addListener((observable, oldValue, newValue) -> {
+      if ((! newValue) && (! isPopupFocused())) {
+        popup.hide();
+      }
+    });
+    addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+      switch (event.getCode()) {
+        case ENTER: {
+          final IAction action = getSelectedSuggestion();
+          if (action != null) {
+            execute(action);
+            event.consume();
+          }
+          break;
+        }
+        case DOWN: {
+          final ListView<?> list = getSuggestionList();
+          if (list != null) {
+            list.requestFocus();
+            event.consume();
+          }
+          break;
+        }
+        case ESCAPE: {
+          popup.hide();
+          break;
+        }
+        default:
+          break;
+      }
+    });
+  }
+
+  /**
+   * Gets the action manager whose actions are searched by this palette.
+   *
+   * @return the action manager whose actions are searched by this palette.
+   */
+  public final ActionManager getActionManager() {
+    return manager;
+  }
+
+  /**
+   * Gets the matcher used to rank the actions.
+   *
+   * @return the matcher used to rank the actions.
+   */
+  public final CommandMatcher getMatcher() {
+    return matcher;
+  }
+
+  /**
+   * Gets the maximum number of displayed actions.
+   *
+   * @return the maximum number of displayed actions.
+   */
+  public final int getLimit() {
+    return limit;
+  }
+
+  /**
+   * Sets the maximum number of displayed actions.
+   *
+   * @param limit
+   *          the new maximum number of displayed actions.
+   */
+  public final void setLimit(int limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Installs an accelerator to a scene, which focuses this palette when
+   * pressed.
+   * <p>
+   * The accelerator previously installed by this palette to the scene, if
+   * any, is replaced.
+   *
+   * @param scene
+   *          the scene to be installed to.
+   * @param accelerator
+   *          the accelerator, e.g., the {@link #DEFAULT_ACCELERATOR}.
+   * @see #uninstallAccelerator(Scene)
+   */
+  public void installAccelerator(Scene scene, KeyCombination accelerator) {
+    uninstallAccelerator(scene);
+    final EventHandler<KeyEvent> filter = event -> {
+      if (accelerator.match(event)) {
+        event.consume();
+        requestFocus();
+        selectAll();
+        updateSuggestions(getText());
+      }
+    };
+    scene.addEventFilter(KeyEvent.KEY_PRESSED, filter);
+    scene.getProperties().put(this, filter);
+  }
+
+  /**
+   * Uninstalls the accelerator installed by this palette from a scene.
+   *
+   * @param scene
+   *          the scene to be uninstalled from.
+   * @return {@code true} if an accelerator was installed by this palette to
+   *         the scene; {@code false} otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean uninstallAccelerator(Scene scene) {
+    final EventHandler<KeyEvent> filter =
+        (EventHandler<KeyEvent>) scene.getProperties().remove(this);
+    if (filter == null) {
+      return false;
+    }
+    scene.removeEventFilter(KeyEvent.KEY_PRESSED, filter);
+    return true;
+  }
+
+  private void updateSuggestions(String text) {
+    final List<IAction> matched = matcher.match(text == null ? "" : text, limit);
+    popup.getSuggestions().setAll(matched);
+    if (matched.isEmpty()) {
+      popup.hide();
+    } else {
+      if (! popup.isShowing() && (getScene() != null)) {
+        popup.show(this);
+      }
+      final ListView<?> list = getSuggestionList();
+      if (list != null) {
+        list.getSelectionModel().select(0);
+      }
+    }
+  }
+
+  private void execute(IAction action) {
+    //  the action may have been disabled since the suggestions were computed
+    if (action.isDisable()) {
+      return;
+    }
+    matcher.recordUsage(action);
+    clear();
+    popup.hide();
+    //  invoked like the controls and accelerators of the action, so that the
+    //  invocation is recorded by the metrics
+    ActionMetrics.getDefault().invoke(action, new ActionEvent(this, this));
+  }
+
+  private ListView<?> getSuggestionList() {
+    final Skin<?> skin = popup.getSkin();
+    if (skin instanceof AutoCompletePopupSkin) {
+      return (ListView<?>) ((AutoCompletePopupSkin<?>) skin).getNode();
+    } else {
+      return null;
+    }
+  }
+
+  private IAction getSelectedSuggestion() {
+    final List<IAction> suggestions = popup.getSuggestions();
+    if (suggestions.isEmpty()) {
+      return null;
+    }
+    final ListView<?> list = getSuggestionList();
+    final int index = (list == null ? -1
+                                    : list.getSelectionModel().getSelectedIndex());
+    if ((index >= 0) && (index < suggestions.size())) {
+      return suggestions.get(index);
+    } else {
+      return suggestions.get(0);
+    }
+  }
+
+  private boolean isPopupFocused() {
+    final ListView<?> list = getSuggestionList();
+    return (list != null) && list.isFocused();
+  }
+
+  /**
+   * Converts the actions to the strings displayed in the popup.
+   */
+  private final class ActionConverter extends StringConverter<IAction> {
+
+    @Override
+    public String toString(IAction action) {
+      if (action == null) {
+        return "";
+      }
+      final String text;
+      if (action.getText() != null) {
+        text = action.getText().replace("_", "");
+      } else if (action.getId() != null) {
+        text = action.getId();
+      } else {
+        text = "";
+      }
+      final KeyCombination accelerator = action.getAccelerator();
+      if (accelerator == null) {
+        return text;
+      } else {
+        return text + "    " + accelerator.getDisplayText();
+      }
+    }
+
+    @Override
+    public IAction fromString(String string) {
+      if (string == null) {
+        return null;
+      }
+      for (final IAction action : popup.getSuggestions()) {
+        if (string.equals(toString(action))) {
+          return action;
+        }
+      }
+      return manager.get(string);
+    }
+  }
+}
@@ -16,10 +16,21 @@ package com.github.haixing_hu.javafx.pane;
 
 import javafx.scene.layout.Pane;
 
-import com.github.haixing_hu.javafx.geometry.Size;
-
 /**
  * The base class for SWT like layout panes.
+ * <p>
+ * The layout passes of the subclasses should not allocate objects, since a
+ * layout pane may be resized continuously together with hundreds of other
+ * panes. Therefore the {@link #computeSize(double, double, boolean)} method
+ * stores its result in the {@link #computedWidth} and {@link #computedHeight}
+ * fields instead of returning a new object.
+ * <p>
+ * The preferred width and height of the pane are computed together in one
+ * call of {@link #computeSize(double, double, boolean)}, and the result is
+ * reused until {@link #requestLayout()} is called, e.g., when the preferred
+ * size of a child changed. The subclasses cache the measured sizes of their
+ * children, and should count the cache hits and misses in the
+ * {@link #cacheHits} and {@link #cacheMisses} fields.
  *
  * @param D
  *          the type of the layout data used by the pane.
@@ -38,7 +49,49 @@ public abstract class AbstractLayoutPane<D> extends Pane {
 //  public static final int FX_TOP = 128;
 //  public static final int FX_HORIZONTAL = 256;
 
-  protected abstract Size computeSize(double width, double height, boolean flushCache);
+  /**
+   * The width computed by the last call to
+   * {@link #computeSize(double, double, boolean)}.
+   */
+  protected double computedWidth;
+
+  /**
+   * The height computed by the last call to
+   * {@link #computeSize(double, double, boolean)}.
+   */
+  protected double computedHeight;
+
+  /**
+   * Indicates whether this pane is laying out its children. The subclasses
+   * should set it during their layout passes, so that the changes of the
+   * children caused by the layout pass itself do not flush the caches.
+   */
+  protected boolean performingLayout;
+
+  /**
+   * The number of measurements of children answered from the cache.
+   */
+  protected long cacheHits;
+
+  /**
+   * The number of measurements of children which are not cached.
+   */
+  protected long cacheMisses;
+
+  private boolean sizeValid;
+
+  /**
+   * Computes the size of this pane, and stores the result in the
+   * {@link #computedWidth} and {@link #computedHeight} fields.
+   *
+   * @param width
+   *          the width hint, or {@link #USE_COMPUTED_SIZE}.
+   * @param height
+   *          the height hint, or {@link #USE_COMPUTED_SIZE}.
+   * @param flushCache
+   *          whether to flush the cached sizes of the children.
+   */
+  protected abstract void computeSize(double width, double height, boolean flushCache);
 
 //  protected static void setConstraint(Node node, Object key, Object value) {
 //    if (value == null) {
@@ -61,6 +114,56 @@ public abstract class AbstractLayoutPane<D> extends Pane {
 //    return null;
 //  }
 
+  /**
+   * Gets the number of measurements of children answered from the cache.
+   *
+   * @return the number of measurements of children answered from the cache.
+   */
+  public final long getCacheHits() {
+    return cacheHits;
+  }
+
+  /**
+   * Gets the number of measurements of children which are not cached.
+   *
+   * @return the number of measurements of children which are not cached.
+   */
+  public final long getCacheMisses() {
+    return cacheMisses;
+  }
+
+  /**
+   * Gets the hit rate of the cache of the measured sizes of children.
+   *
+   * @return the hit rate of the cache, between 0 and 1; or 0 if no child was
+   *         measured.
+   */
+  public final double getCacheHitRate() {
+    final long total = cacheHits + cacheMisses;
+    return (total == 0 ? 0 : (double) cacheHits / total);
+  }
+
+  /**
+   * Resets the cache hit and miss counters.
+   */
+  public final void resetCacheStatistics() {
+    cacheHits = 0;
+    cacheMisses = 0;
+  }
+
+  @Override
+  public void requestLayout() {
+    sizeValid = false;
+    super.requestLayout();
+  }
+
+  private void validateSize() {
+    if (! sizeValid) {
+      computeSize(USE_COMPUTED_SIZE, USE_COMPUTED_SIZE, false);
+      sizeValid = true;
+    }
+  }
+
   @Override
   protected double computeMinHeight(double width) {
     return 0;
@@ -73,11 +176,13 @@ public abstract class AbstractLayoutPane<D> extends Pane {
 
   @Override
   protected double computePrefHeight(double width) {
-    return computeSize(USE_COMPUTED_SIZE, USE_COMPUTED_SIZE, true).height;
+    validateSize();
+    return computedHeight;
   }
 
   @Override
   protected double computePrefWidth(double height) {
-    return computeSize(USE_COMPUTED_SIZE, USE_COMPUTED_SIZE, true).width;
+    validateSize();
+    return computedWidth;
   }
 }
@@ -16,10 +16,30 @@ package com.github.haixing_hu.javafx.pane;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.TranslateTransition;
+import javafx.geometry.Bounds;
+import javafx.geometry.Orientation;
 import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+
+import com.github.haixing_hu.lang.Argument;
 
 /**
  * A {@link CardPane} is a {@link Pane} providing the AWT's
@@ -41,21 +61,370 @@ import javafx.scene.layout.Pane;
  * pane.showCard(1);
  * }
  * </pre>
+ * <p>
+ * A card could also be added as a {@link Supplier} of its node, in which case
+ * the node is constructed on the first time the card is displayed (or got by
+ * {@link #getCard(int)}). If the prefetching is enabled, the adjacent cards of
+ * the displayed card, i.e., the cards displayed by {@link #showNextCard()} and
+ * {@link #showPreviousCard()}, are constructed after the pane has been idle
+ * for a short delay, so that switching to them remains instant.
+ * <p>
+ * The constructed nodes of the cards added as suppliers are kept in a card
+ * cache, which could be bounded by the number of cards (see
+ * {@link #setCacheLimit(int)}) or by their estimated memory (see
+ * {@link #setMemoryBudget(long)}). When the cache exceeds its bounds, the
+ * least recently displayed hidden cards are disposed, and are constructed
+ * again from their suppliers when they are displayed again. A card whose node
+ * implements {@link StatefulCard} saves its view state before disposing, and
+ * restores it after reconstructing. The cards added as nodes could not be
+ * reconstructed, and therefore are never evicted. The memory of a card is
+ * estimated once, when it is hidden for the first time, so that its skins have
+ * been created and its CSS has been applied; until then, it is estimated by
+ * the average memory of the cached cards. An adjacent card is not prefetched
+ * if its estimated memory would exceed the bounds of the cache.
+ * <p>
+ * By default, switching cards removes the previous card from the scene
+ * graph, and adding it back later re-applies its CSS and lays out its whole
+ * subtree again. If the keep-alive count is set by
+ * {@link #setKeepAliveCount(int)}, the recently displayed cards are kept in the
+ * scene graph as invisible and unmanaged children, so switching back to them
+ * only toggles their visibility.
+ * <p>
+ * The switching of cards could be animated by {@link #setTransition(Transition)}.
+ * The animation does not run on the live cards: the outgoing and incoming
+ * cards are rendered into bitmap snapshots when the switching starts, the
+ * snapshots are animated while the live incoming card is hidden, and the live
+ * card is displayed when the animation finishes. Therefore the frame rate of
+ * the animation does not depend on the complexity of the cards.
  *
  * @author Haixing Hu
  */
 public class CardPane extends FillPane {
 
-  private final List<Node> cards;
+  /**
+   * The transitions between the cards.
+   */
+  public enum Transition {
+
+    /**
+     * Switches the cards without animation.
+     */
+    NONE,
+
+    /**
+     * Fades out the outgoing card and fades in the incoming card.
+     */
+    FADE,
+
+    /**
+     * Slides the outgoing card out and the incoming card in. The cards slide
+     * to the left if the incoming card is after the outgoing card, and to the
+     * right otherwise.
+     */
+    SLIDE
+  }
+
+  /**
+   * The default duration of the transitions between the cards.
+   */
+  public static final Duration DEFAULT_TRANSITION_DURATION = Duration.millis(250);
+
+  /**
+   * The default delay before the adjacent cards are prefetched.
+   */
+  public static final Duration DEFAULT_PREFETCH_DELAY = Duration.millis(200);
+
+  /**
+   * The estimated memory size, in bytes, of a node used by the default size
+   * estimator.
+   */
+  public static final long DEFAULT_NODE_SIZE = 2048;
+
+  private final List<Card> cards;
   private int index;
+  private boolean prefetch;
+  private final PauseTransition prefetcher;
+  private final LinkedHashMap<Card, Card> cache;
+  private int cacheLimit;
+  private long memoryBudget;
+  private long cachedMemory;
+  private ToLongFunction<Node> sizeEstimator;
+  private final List<Card> alive;
+  private int keepAliveCount;
+  private Transition transition;
+  private Duration transitionDuration;
+  private final SnapshotParameters snapshotParameters;
+  private WritableImage outgoingImage;
+  private WritableImage incomingImage;
+  private ImageView outgoingView;
+  private ImageView incomingView;
+  private Animation animation;
+  private Node animatedCard;
+  private Node savedClip;
 
   /**
    * Constructs a {@link CardPane}.
    */
   public CardPane() {
     super();
-    cards = new ArrayList<Node>();
+    cards = new ArrayList<Card>();
     index = - 1;
+    prefetch = false;
+    prefetcher = new PauseTransition(DEFAULT_PREFETCH_DELAY);
+    prefetcher.setOnFinished((e) -> prefetchNext());
+    cache = new LinkedHashMap<Card, Card>(16, 0.75f, true);
+    cacheLimit = Integer.MAX_VALUE;
+    memoryBudget = Long.MAX_VALUE;
+    cachedMemory = 0;
+    sizeEstimator = CardPane::estimateSize;
+    alive = new ArrayList<Card>();
+    keepAliveCount = 0;
+    transition = Transition.NONE;
+    transitionDuration = DEFAULT_TRANSITION_DURATION;
+    snapshotParameters = new SnapshotParameters();
+    snapshotParameters.setFill(Color.TRANSPARENT);
+  }
+
+  /**
+   * Gets the transition between the cards.
+   *
+   * @return the transition between the cards.
+   */
+  public Transition getTransition() {
+    return transition;
+  }
+
+  /**
+   * Sets the transition between the cards.
+   * <p>
+   * The default value is {@link Transition#NONE}.
+   *
+   * @param transition
+   *          the new transition between the cards.
+   */
+  public void setTransition(Transition transition) {
+    this.transition = Argument.requireNonNull("transition", transition);
+  }
+
+  /**
+   * Gets the duration of the transitions between the cards.
+   *
+   * @return the duration of the transitions between the cards.
+   */
+  public Duration getTransitionDuration() {
+    return transitionDuration;
+  }
+
+  /**
+   * Sets the duration of the transitions between the cards.
+   * <p>
+   * The default value is {@link #DEFAULT_TRANSITION_DURATION}.
+   *
+   * @param transitionDuration
+   *          the new duration of the transitions between the cards.
+   */
+  public void setTransitionDuration(Duration transitionDuration) {
+    this.transitionDuration = Argument.requireNonNull("transitionDuration",
+        transitionDuration);
+  }
+
+  /**
+   * Gets the maximum number of hidden cards kept in the scene graph.
+   *
+   * @return the maximum number of hidden cards kept in the scene graph.
+   */
+  public int getKeepAliveCount() {
+    return keepAliveCount;
+  }
+
+  /**
+   * Sets the maximum number of hidden cards kept in the scene graph.
+   * <p>
+   * The most recently displayed hidden cards are kept as invisible and
+   * unmanaged children of this pane, so that displaying them again neither
+   * re-applies their CSS nor lays out their subtrees from scratch. The other
+   * hidden cards are removed from the scene graph. The default value is 0,
+   * i.e., only the displayed card is in the scene graph.
+   *
+   * @param keepAliveCount
+   *          the new maximum number of hidden cards kept in the scene graph.
+   * @throws IllegalArgumentException
+   *           if the count is negative.
+   */
+  public void setKeepAliveCount(int keepAliveCount) {
+    if (keepAliveCount < 0) {
+      throw new IllegalArgumentException("The keep-alive count can not be negative.");
+    }
+    this.keepAliveCount = keepAliveCount;
+    while (alive.size() > keepAliveCount) {
+      release(alive.get(alive.size() - 1));
+    }
+  }
+
+  /**
+   * Tests whether the adjacent cards of the displayed card are prefetched.
+   *
+   * @return {@code true} if the adjacent cards of the displayed card are
+   *         prefetched; {@code false} otherwise.
+   */
+  public boolean isPrefetch() {
+    return prefetch;
+  }
+
+  /**
+   * Sets whether the adjacent cards of the displayed card are prefetched.
+   * <p>
+   * The default value is {@code false}.
+   *
+   * @param prefetch
+   *          whether the adjacent cards of the displayed card are prefetched.
+   */
+  public void setPrefetch(boolean prefetch) {
+    this.prefetch = prefetch;
+    if (prefetch) {
+      prefetcher.playFromStart();
+    } else {
+      prefetcher.stop();
+    }
+  }
+
+  /**
+   * Gets the delay before the adjacent cards are prefetched.
+   *
+   * @return the delay before the adjacent cards are prefetched.
+   */
+  public Duration getPrefetchDelay() {
+    return prefetcher.getDuration();
+  }
+
+  /**
+   * Sets the delay before the adjacent cards are prefetched.
+   *
+   * @param delay
+   *          the new delay before the adjacent cards are prefetched. Each
+   *          adjacent card is constructed after the pane has been idle for
+   *          this delay.
+   */
+  public void setPrefetchDelay(Duration delay) {
+    prefetcher.setDuration(delay);
+  }
+
+  /**
+   * Gets the maximum number of constructed cards kept in the card cache.
+   *
+   * @return the maximum number of constructed cards kept in the card cache.
+   */
+  public int getCacheLimit() {
+    return cacheLimit;
+  }
+
+  /**
+   * Sets the maximum number of constructed cards kept in the card cache.
+   * <p>
+   * Only the cards added as suppliers are counted. The default value is
+   * {@link Integer#MAX_VALUE}, i.e., the cards are never evicted.
+   *
+   * @param cacheLimit
+   *          the new maximum number of constructed cards kept in the card
+   *          cache, which must be positive. The displayed card is always kept
+   *          even if it exceeds the limit.
+   * @throws IllegalArgumentException
+   *           if the limit is not positive.
+   */
+  public void setCacheLimit(int cacheLimit) {
+    if (cacheLimit <= 0) {
+      throw new IllegalArgumentException("The cache limit must be positive.");
+    }
+    this.cacheLimit = cacheLimit;
+    evict(null);
+  }
+
+  /**
+   * Gets the maximum estimated memory of the constructed cards kept in the
+   * card cache.
+   *
+   * @return the maximum estimated memory, in bytes, of the constructed cards
+   *         kept in the card cache.
+   */
+  public long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  /**
+   * Sets the maximum estimated memory of the constructed cards kept in the
+   * card cache.
+   * <p>
+   * Only the cards added as suppliers are counted. The default value is
+   * {@link Long#MAX_VALUE}, i.e., the cards are never evicted.
+   *
+   * @param memoryBudget
+   *          the new maximum estimated memory, in bytes, of the constructed
+   *          cards kept in the card cache, which can not be negative. The
+   *          displayed card is always kept even if it exceeds the budget.
+   * @throws IllegalArgumentException
+   *           if the budget is negative.
+   */
+  public void setMemoryBudget(long memoryBudget) {
+    if (memoryBudget < 0) {
+      throw new IllegalArgumentException("The memory budget can not be negative.");
+    }
+    this.memoryBudget = memoryBudget;
+    evict(null);
+  }
+
+  /**
+   * Gets the estimated memory of the constructed cards kept in the card
+   * cache.
+   *
+   * @return the estimated memory, in bytes, of the constructed cards kept in
+   *         the card cache.
+   */
+  public long getCachedMemory() {
+    return cachedMemory;
+  }
+
+  /**
+   * Gets the function estimating the memory size of the node of a card.
+   *
+   * @return the function estimating the memory size of the node of a card.
+   */
+  public ToLongFunction<Node> getSizeEstimator() {
+    return sizeEstimator;
+  }
+
+  /**
+   * Sets the function estimating the memory size of the node of a card.
+   * <p>
+   * The function is called once for each card, when the card is hidden for the
+   * first time, since it may walk the whole scene graph of the card, which is
+   * only complete after the skins of its controls have been created. The
+   * default estimator is {@link #estimateSize(Node)}.
+   *
+   * @param sizeEstimator
+   *          the new function estimating the memory size, in bytes, of the
+   *          node of a card.
+   */
+  public void setSizeEstimator(ToLongFunction<Node> sizeEstimator) {
+    this.sizeEstimator = Argument.requireNonNull("sizeEstimator", sizeEstimator);
+  }
+
+  /**
+   * Estimates the memory size of a node, by counting the nodes in its scene
+   * graph.
+   *
+   * @param node
+   *          a node.
+   * @return the number of nodes in the scene graph rooted at the specified
+   *         node, multiplied by {@link #DEFAULT_NODE_SIZE}.
+   */
+  public static long estimateSize(Node node) {
+    long result = DEFAULT_NODE_SIZE;
+    if (node instanceof Parent) {
+      for (final Node child : ((Parent) node).getChildrenUnmodifiable()) {
+        result += estimateSize(child);
+      }
+    }
+    return result;
   }
 
   /**
@@ -84,9 +453,25 @@ public class CardPane extends FillPane {
    *          the card to be added to this {@link CardPane}.
    */
   public void addCard(Node card) {
-    cards.add(card);
+    cards.add(new Card(Argument.requireNonNull("card", card), null));
+    if (index < 0) {
+      showCard(0);
+    }
+  }
+
+  /**
+   * Adds a card to this {@link CardPane}, whose node is constructed lazily.
+   *
+   * @param supplier
+   *          the supplier of the node of the card to be added, which is called
+   *          on the first time the card is displayed or got.
+   */
+  public void addCard(Supplier<? extends Node> supplier) {
+    cards.add(new Card(null, Argument.requireNonNull("supplier", supplier)));
     if (index < 0) {
       showCard(0);
+    } else {
+      schedulePrefetch();
     }
   }
 
@@ -101,7 +486,7 @@ public class CardPane extends FillPane {
       return;
     }
     for (final Node card : cards) {
-      this.cards.add(card);
+      this.cards.add(new Card(card, null));
     }
     if (index < 0) { // default to show the first card
       showCard(0);
@@ -118,7 +503,9 @@ public class CardPane extends FillPane {
     if (cards.size() == 0) {
       return;
     }
-    this.cards.addAll(cards);
+    for (final Node card : cards) {
+      this.cards.add(new Card(card, null));
+    }
     if (index < 0) { // default to show the first card
       showCard(0);
     }
@@ -128,12 +515,22 @@ public class CardPane extends FillPane {
    * Clears all card nodes in this {@link CardPane}.
    */
   public void clearCards() {
+    finishTransition();
+    while (! alive.isEmpty()) {
+      release(alive.get(alive.size() - 1));
+    }
     cards.clear();
     index = - 1;
+    prefetcher.stop();
+    cache.clear();
+    cachedMemory = 0;
   }
 
   /**
    * Gets a card in this {@link CardPane}.
+   * <p>
+   * If the card was added as a supplier and has not been constructed, it is
+   * constructed by this function.
    *
    * @param i
    *          the index of the card to be get.
@@ -142,7 +539,24 @@ public class CardPane extends FillPane {
    *           if the index is out of bounds.
    */
   public Node getCard(int i) {
-    return cards.get(i);
+    final Card card = cards.get(i);
+    final Node node = load(card);
+    evict(card);
+    return node;
+  }
+
+  /**
+   * Tests whether the node of a card has been constructed.
+   *
+   * @param i
+   *          the index of a card.
+   * @return {@code true} if the node of the card has been constructed;
+   *         {@code false} otherwise.
+   * @throws IndexOutOfBoundsException
+   *           if the index is out of bounds.
+   */
+  public boolean isCardLoaded(int i) {
+    return cards.get(i).node != null;
   }
 
   /**
@@ -152,7 +566,7 @@ public class CardPane extends FillPane {
    *         {@code null} if there is no card in this {@link CardPane}.
    */
   public Node getCurrentCard() {
-    return (index < 0 ? null : cards.get(index));
+    return (index < 0 ? null : cards.get(index).node);
   }
 
   /**
@@ -243,9 +657,345 @@ public class CardPane extends FillPane {
    */
   public void showCard(int index) {
     if (this.index != index) {
-      final Node node = cards.get(index);
-      getChildren().setAll(node);
+      finishTransition();
+      final Card card = cards.get(index);
+      final Node node = load(card);
+      final Card previous = (this.index < 0 ? null : cards.get(this.index));
+      final boolean animated = (transition != Transition.NONE)
+          && (previous != null) && (getScene() != null)
+          && (getWidth() > 0) && (getHeight() > 0);
+      Bounds outgoingBounds = null;
+      if (animated) {
+        outgoingBounds = previous.node.getBoundsInParent();
+        outgoingImage = snapshot(previous.node, outgoingImage);
+      }
+      final boolean forward = (index > this.index);
+      if (keepAliveCount == 0) {
+        getChildren().setAll(node);
+      } else {
+        alive.remove(card);
+        if (node.getParent() != this) {
+          getChildren().add(node);
+        }
+        node.setVisible(true);
+        node.setManaged(true);
+        if (previous != null) {
+          previous.node.setVisible(false);
+          previous.node.setManaged(false);
+          alive.add(0, previous);
+          if (alive.size() > keepAliveCount) {
+            release(alive.get(alive.size() - 1));
+          }
+        }
+      }
+      if ((previous != null) && (! previous.measured)) {
+        measure(previous);
+      }
       this.index = index;
+      evict(null);
+      if (animated) {
+        startTransition(node, outgoingBounds, forward);
+      }
+      schedulePrefetch();
+    }
+  }
+
+  /**
+   * Renders a node into a bitmap, reusing the buffer if it has the same size.
+   */
+  private WritableImage snapshot(Node node, WritableImage buffer) {
+    final Bounds bounds = node.getBoundsInParent();
+    if ((buffer != null)
+        && ((buffer.getWidth() != Math.ceil(bounds.getWidth()))
+            || (buffer.getHeight() != Math.ceil(bounds.getHeight())))) {
+      buffer = null;
+    }
+    return node.snapshot(snapshotParameters, buffer);
+  }
+
+  /**
+   * Starts the animation of the snapshots of the outgoing card and the
+   * displayed card, whose live node is hidden until the animation finishes.
+   */
+  private void startTransition(Node node, Bounds outgoingBounds,
+      boolean forward) {
+    //  lays out the incoming card now, so that it could be rendered
+    applyCss();
+    layout();
+    incomingImage = snapshot(node, incomingImage);
+    if (outgoingView == null) {
+      outgoingView = new ImageView();
+      outgoingView.setManaged(false);
+      incomingView = new ImageView();
+      incomingView.setManaged(false);
+    }
+    final Bounds incomingBounds = node.getBoundsInParent();
+    outgoingView.setImage(outgoingImage);
+    outgoingView.relocate(outgoingBounds.getMinX(), outgoingBounds.getMinY());
+    incomingView.setImage(incomingImage);
+    incomingView.relocate(incomingBounds.getMinX(), incomingBounds.getMinY());
+    animatedCard = node;
+    node.setVisible(false);
+    savedClip = getClip();
+    setClip(new Rectangle(getWidth(), getHeight()));
+    getChildren().addAll(outgoingView, incomingView);
+    switch (transition) {
+      case FADE: {
+        final FadeTransition fadeOut = new FadeTransition(transitionDuration,
+            outgoingView);
+        fadeOut.setFromValue(1);
+        fadeOut.setToValue(0);
+        final FadeTransition fadeIn = new FadeTransition(transitionDuration,
+            incomingView);
+        fadeIn.setFromValue(0);
+        fadeIn.setToValue(1);
+        animation = new ParallelTransition(fadeOut, fadeIn);
+        break;
+      }
+      case SLIDE:
+      default: {
+        final double distance = (forward ? getWidth() : - getWidth());
+        final TranslateTransition slideOut = new TranslateTransition(transitionDuration,
+            outgoingView);
+        slideOut.setFromX(0);
+        slideOut.setToX(- distance);
+        final TranslateTransition slideIn = new TranslateTransition(transitionDuration,
+            incomingView);
+        slideIn.setFromX(distance);
+        slideIn.setToX(0);
+        animation = new ParallelTransition(slideOut, slideIn);
+        break;
+      }
+    }
+    animation.setOnFinished((e) -> finishTransition());
+    animation.play();
+  }
+
+  /**
+   * Stops the running transition, if any, and displays the live node of the
+   * displayed card.
+   */
+  private void finishTransition() {
+    if (animation == null) {
+      return;
+    }
+    animation.stop();
+    animation = null;
+    getChildren().removeAll(outgoingView, incomingView);
+    outgoingView.setImage(null);
+    outgoingView.setOpacity(1);
+    outgoingView.setTranslateX(0);
+    incomingView.setImage(null);
+    incomingView.setOpacity(1);
+    incomingView.setTranslateX(0);
+    setClip(savedClip);
+    savedClip = null;
+    animatedCard.setVisible(true);
+    animatedCard = null;
+  }
+
+  /**
+   * Removes a hidden card kept alive from the scene graph.
+   */
+  private void release(Card card) {
+    if (alive.remove(card)) {
+      final Node node = card.node;
+      getChildren().remove(node);
+      node.setVisible(true);
+      node.setManaged(true);
+    }
+  }
+
+  /**
+   * Constructs the node of a card if necessary, and marks it as the most
+   * recently used card in the card cache.
+   */
+  private Node load(Card card) {
+    if (card.node == null) {
+      final Node node = card.supplier.get();
+      if (node == null) {
+        throw new NullPointerException("The supplier of a card returns null.");
+      }
+      if ((card.state != null) && (node instanceof StatefulCard)) {
+        ((StatefulCard) node).restoreState(card.state);
+      }
+      card.state = null;
+      card.node = node;
+      if (! card.measured) {
+        //  the node has neither skins nor CSS yet, so it is measured later
+        card.size = averageSize();
+      }
+      cachedMemory += card.size;
+      cache.put(card, card);
+    } else if (card.supplier != null) {
+      cache.get(card);
+    }
+    return card.node;
+  }
+
+  /**
+   * Estimates the memory size of a displayed card, which has been laid out with
+   * its skins and CSS, and keeps the size as the estimate of its later
+   * constructions.
+   */
+  private void measure(Card card) {
+    card.measured = true;
+    if (card.supplier != null) {
+      final long size = sizeEstimator.applyAsLong(card.node);
+      cachedMemory += size - card.size;
+      card.size = size;
+    }
+  }
+
+  /**
+   * Disposes the least recently used hidden cards until the card cache fits
+   * its bounds. The displayed card and the pinned card are never disposed.
+   */
+  private void evict(Card pinned) {
+    final Card current = (index < 0 ? null : cards.get(index));
+    final Iterator<Card> iter = cache.keySet().iterator();
+    while (((cache.size() > cacheLimit) || (cachedMemory > memoryBudget))
+        && iter.hasNext()) {
+      final Card card = iter.next();
+      if ((card != current) && (card != pinned)) {
+        release(card);
+        iter.remove();
+        cachedMemory -= card.size;
+        if (card.node instanceof StatefulCard) {
+          card.state = ((StatefulCard) card.node).saveState();
+        }
+        //  the size is kept as the estimate of the next construction
+        card.node = null;
+      }
+    }
+  }
+
+  /**
+   * Tests whether constructing a card would exceed the bounds of the card
+   * cache.
+   */
+  private boolean exceedsCache(Card card) {
+    if (cache.size() >= cacheLimit) {
+      return true;
+    }
+    final long size = (card.measured ? card.size : averageSize());
+    return (cachedMemory + size > memoryBudget);
+  }
+
+  /**
+   * Gets the estimated memory size of an unloaded card which has not been
+   * measured, i.e., the average size of the cached cards.
+   */
+  private long averageSize() {
+    return (cache.isEmpty() ? 0 : cachedMemory / cache.size());
+  }
+
+  /**
+   * Tests whether this pane has children other than the displayed card, i.e.,
+   * the hidden cards kept alive or the snapshots of a running transition.
+   */
+  private boolean hasExtraChildren() {
+    return (index >= 0) && (getChildren().size() > 1);
+  }
+
+  @Override
+  protected void computeSize(double wHint, double hHint, boolean flushCache) {
+    if (! hasExtraChildren()) {
+      super.computeSize(wHint, hHint, flushCache);
+      return;
+    }
+    //  only the displayed card is measured, the other children are ignored
+    final FillData data = computeChildSize(cards.get(index).node, wHint, hHint,
+        flushCache);
+    final boolean weighted = isWeighted();
+    final boolean horizontal = (getOrientation() == Orientation.HORIZONTAL);
+    double width = ((weighted && horizontal) ? data.clamp(data.width) : data.width);
+    double height = ((weighted && ! horizontal) ? data.clamp(data.height) : data.height);
+    width += getMarginWidth() * 2;
+    height += getMarginHeight() * 2;
+    computedWidth = (wHint != USE_COMPUTED_SIZE ? wHint : width);
+    computedHeight = (hHint != USE_COMPUTED_SIZE ? hHint : height);
+  }
+
+  @Override
+  protected void layoutChildren() {
+    if (! hasExtraChildren()) {
+      super.layoutChildren();
+      return;
+    }
+    //  only the displayed card is laid out, the other children are left
+    //  untouched
+    final Node node = cards.get(index).node;
+    final double marginWidth = getMarginWidth();
+    final double marginHeight = getMarginHeight();
+    double width = getWidth() - (marginWidth * 2);
+    double height = getHeight() - (marginHeight * 2);
+    if (isWeighted()) {
+      final FillData data = computeChildSize(node, USE_COMPUTED_SIZE,
+          USE_COMPUTED_SIZE, false);
+      if (getOrientation() == Orientation.HORIZONTAL) {
+        width = (data.weight > 0 ? data.clamp(width) : data.minSize);
+      } else {
+        height = (data.weight > 0 ? data.clamp(height) : data.minSize);
+      }
+    }
+    performingLayout = true;
+    try {
+      node.resizeRelocate(marginWidth, marginHeight, width, height);
+    } finally {
+      performingLayout = false;
+    }
+  }
+
+  private void schedulePrefetch() {
+    if (prefetch) {
+      prefetcher.playFromStart();
+    }
+  }
+
+  /**
+   * Constructs the first unloaded adjacent card of the displayed card, and
+   * schedules the next prefetch if another adjacent card is still unloaded.
+   */
+  private void prefetchNext() {
+    if (index < 0) {
+      return;
+    }
+    Card next = null;
+    int unloaded = 0;
+    for (int i = index + 1; i >= index - 1; i -= 2) {
+      if ((i >= 0) && (i < cards.size()) && (cards.get(i).node == null)) {
+        if (next == null) {
+          next = cards.get(i);
+        }
+        ++unloaded;
+      }
+    }
+    if ((next != null) && (! exceedsCache(next))) {
+      load(next);
+      evict(null);
+      if (unloaded > 1) {
+        prefetcher.playFromStart();
+      }
+    }
+  }
+
+  /**
+   * A card of a {@link CardPane}.
+   */
+  private static final class Card {
+    Node node;
+    final Supplier<? extends Node> supplier;
+    Object state;
+    long size;
+    boolean measured;
+
+    Card(Node node, Supplier<? extends Node> supplier) {
+      this.node = node;
+      this.supplier = supplier;
+      this.state = null;
+      this.size = 0;
+      this.measured = false;
     }
   }
 }
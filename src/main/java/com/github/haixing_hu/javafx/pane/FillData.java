@@ -14,18 +14,46 @@
 
 package com.github.haixing_hu.javafx.pane;
 
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.value.ObservableValue;
 import javafx.scene.Node;
 
-import com.github.haixing_hu.javafx.geometry.Size;
-
 import static javafx.scene.layout.Region.USE_COMPUTED_SIZE;
 
 /**
  * The layout data of the {@link FillPane}.
+ * <p>
+ * The size computed by {@link #computeSize(Node, double, double, boolean)} is
+ * stored in the {@link #width} and {@link #height} fields, so that measuring a
+ * child does not allocate objects.
+ * <p>
+ * The cached sizes are flushed when the child requests a layout, or when the
+ * layout bounds of a child which is not a {@link javafx.scene.Parent} change,
+ * unless the change is caused by the layout pass of the owner pane.
  *
  * @author Haixing Hu
  */
-class FillData {
+class FillData implements InvalidationListener {
+
+  AbstractLayoutPane<?> owner;
+
+  /**
+   * The weight of the child in the weighted layout mode.
+   */
+  double weight = 1;
+
+  /**
+   * The minimum size of the child along the orientation of the pane, in the
+   * weighted layout mode.
+   */
+  double minSize = 0;
+
+  /**
+   * The maximum size of the child along the orientation of the pane, in the
+   * weighted layout mode.
+   */
+  double maxSize = Double.MAX_VALUE;
 
   double defaultWidth = - 1;
   double defaultHeight = - 1;
@@ -33,32 +61,68 @@ class FillData {
   double currentHhint;
   double currentWidth = - 1;
   double currentHeight = - 1;
+  double width;
+  double height;
 
-  Size computeSize(Node control, double wHint, double hHint, boolean flushCache) {
+  /**
+   * Computes the size of a child.
+   *
+   * @return {@code true} if the size was answered from the cache; {@code false}
+   *         otherwise.
+   */
+  boolean computeSize(Node control, double wHint, double hHint, boolean flushCache) {
     if (flushCache) {
       flushCache();
     }
+    boolean hit = true;
     if ((wHint == USE_COMPUTED_SIZE) && (hHint == USE_COMPUTED_SIZE)) {
       if ((defaultWidth == - 1) || (defaultHeight == - 1)) {
+        hit = false;
         // Size size = computeSize (wHint, hHint, flushCache);
         defaultWidth = control.prefWidth(hHint);
         defaultHeight = control.prefHeight(wHint);
       }
-      return new Size(defaultWidth, defaultHeight);
+      width = defaultWidth;
+      height = defaultHeight;
+      return hit;
     }
     if ((currentWidth == - 1) || (currentHeight == - 1)
         || (wHint != currentWhint) || (hHint != currentHhint)) {
       // Point size = control.computeSize (wHint, hHint, flushCache);
+      hit = false;
       currentWhint = wHint;
       currentHhint = hHint;
       currentWidth = control.getLayoutBounds().getWidth();
       currentHeight = control.getLayoutBounds().getHeight();
     }
-    return new Size(currentWidth, currentHeight);
+    width = currentWidth;
+    height = currentHeight;
+    return hit;
+  }
+
+  /**
+   * Clamps a size between the minimum and maximum sizes of the child.
+   */
+  double clamp(double size) {
+    return Math.min(Math.max(size, minSize), maxSize);
   }
 
   void flushCache() {
     defaultWidth = defaultHeight = - 1;
     currentWidth = currentHeight = - 1;
   }
+
+  @Override
+  public void invalidated(Observable observable) {
+    //  gets the value to re-validate the observable, otherwise we won't be
+    //  notified of the subsequent changes
+    final Object value = ((ObservableValue<?>) observable).getValue();
+    if (Boolean.FALSE.equals(value)) {
+      return;     //  the layout of the child was finished
+    }
+    if ((owner != null) && owner.performingLayout) {
+      return;     //  the change was caused by the layout of the owner
+    }
+    flushCache();
+  }
 }
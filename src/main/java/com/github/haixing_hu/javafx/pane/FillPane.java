@@ -14,40 +14,160 @@
 
 package com.github.haixing_hu.javafx.pane;
 
-import java.util.WeakHashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
+import javafx.beans.Observable;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.WritableBooleanValue;
 import javafx.beans.value.WritableIntegerValue;
 import javafx.beans.value.WritableObjectValue;
-import javafx.geometry.Bounds;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
-
-import com.github.haixing_hu.javafx.geometry.Size;
-
+import javafx.scene.Parent;
 
 /**
  * A pane implements the SWT's fill layout.
  * <p>
  * This class is a modified version of the {@code FillPane} from the <a
  * href='https://github.com/tomsontom/e-fx-clipse/'>e(fx)clipse project</a>.
+ * <p>
+ * The layout data of the children are stored in a map owned by the pane,
+ * which is populated when a child is added and purged when it is removed. The
+ * layout data set by {@link #setConstraint(Node, FillData)} before a node is
+ * added to a pane are stored in the properties of the node, and are moved to
+ * the map of the pane when the node is added; they are moved back to the
+ * properties of the node when it is removed, so a node keeps its layout data
+ * when it is moved to another pane.
+ * <p>
+ * By default the children are laid out in cells of equal sizes. In the
+ * weighted layout mode, the space along the orientation of the pane is
+ * distributed in proportion to the weights of the children, while the size of
+ * each child is kept between its minimum and maximum sizes; the space freed or
+ * taken by a clamped child is redistributed among the other children. The
+ * weights and the minimum and maximum sizes are set by
+ * {@link #setWeight(Node, double)}, {@link #setMinSize(Node, double)} and
+ * {@link #setMaxSize(Node, double)}.
  *
  * @author Haixing Hu
  * @see https://github.com/tomsontom/e-fx-clipse/
  */
 public class FillPane extends AbstractLayoutPane<FillData> {
 
-  private static WeakHashMap<Node, FillData> CONSTRAINTS = new WeakHashMap<Node, FillData>();
+  private static final String CONSTRAINT_KEY = "fill-pane-data";
 
   public static void setConstraint(Node n, FillData griddata) {
-    CONSTRAINTS.put(n, griddata);
+    if (n.getParent() instanceof FillPane) {
+      final FillPane pane = (FillPane) n.getParent();
+      if (pane.constraints.containsKey(n)) {
+        pane.detach(n);
+        pane.attach(n, griddata);
+        pane.requestLayout();
+        return;
+      }
+    }
+    n.getProperties().put(CONSTRAINT_KEY, griddata);
   }
 
   public static FillData getConstraint(Node n) {
-    return CONSTRAINTS.get(n);
+    if (n.getParent() instanceof FillPane) {
+      final FillData data = ((FillPane) n.getParent()).constraints.get(n);
+      if (data != null) {
+        return data;
+      }
+    }
+    if (n.hasProperties()) {
+      return (FillData) n.getProperties().get(CONSTRAINT_KEY);
+    }
+    return null;
+  }
+
+  /**
+   * Sets the weight of a child in the weighted layout mode.
+   *
+   * @param child
+   *          a child of a {@link FillPane}.
+   * @param weight
+   *          the new weight of the child, which must be non-negative. The
+   *          default weight is 1.
+   */
+  public static void setWeight(Node child, double weight) {
+    constraintOf(child).weight = weight;
+    requestParentLayout(child);
+  }
+
+  public static double getWeight(Node child) {
+    final FillData data = getConstraint(child);
+    return (data == null ? 1 : data.weight);
+  }
+
+  /**
+   * Sets the minimum size of a child along the orientation of the pane, in the
+   * weighted layout mode.
+   *
+   * @param child
+   *          a child of a {@link FillPane}.
+   * @param minSize
+   *          the new minimum size of the child. The default value is 0.
+   */
+  public static void setMinSize(Node child, double minSize) {
+    constraintOf(child).minSize = minSize;
+    requestParentLayout(child);
+  }
+
+  public static double getMinSize(Node child) {
+    final FillData data = getConstraint(child);
+    return (data == null ? 0 : data.minSize);
+  }
+
+  /**
+   * Sets the maximum size of a child along the orientation of the pane, in the
+   * weighted layout mode.
+   *
+   * @param child
+   *          a child of a {@link FillPane}.
+   * @param maxSize
+   *          the new maximum size of the child. The default value is
+   *          {@link Double#MAX_VALUE}.
+   */
+  public static void setMaxSize(Node child, double maxSize) {
+    constraintOf(child).maxSize = maxSize;
+    requestParentLayout(child);
   }
 
+  public static double getMaxSize(Node child) {
+    final FillData data = getConstraint(child);
+    return (data == null ? Double.MAX_VALUE : data.maxSize);
+  }
+
+  private static FillData constraintOf(Node child) {
+    FillData data = getConstraint(child);
+    if (data == null) {
+      data = new FillData();
+      setConstraint(child, data);
+    }
+    return data;
+  }
+
+  private static void requestParentLayout(Node child) {
+    if (child.getParent() != null) {
+      child.getParent().requestLayout();
+    }
+  }
+
+  private final Map<Node, FillData> constraints;
+
+  /**
+   * The scratch buffers used by the weighted layout.
+   */
+  private double[] sizes;
+  private double[] breakpoints;
+  private int[] order;
+
   /**
    * The property {@code orientation} specifies how controls will be positioned
    * within the layout.
@@ -92,6 +212,15 @@ public class FillPane extends AbstractLayoutPane<FillData> {
    */
   private final WritableIntegerValue spacing;
 
+  /**
+   * The property {@code weighted} specifies whether the children are laid out
+   * in proportion to their weights and within their minimum and maximum sizes,
+   * instead of in cells of equal sizes.
+   * <p>
+   * The default value is {@code false}.
+   */
+  private final WritableBooleanValue weighted;
+
   public FillPane() {
     this(Orientation.HORIZONTAL);
   }
@@ -99,10 +228,92 @@ public class FillPane extends AbstractLayoutPane<FillData> {
   public FillPane(Orientation orientation) {
     super();
     this.orientation = new SimpleObjectProperty<Orientation>(this,
-        "orientation", orientation);
-    marginWidth = new SimpleIntegerProperty(this, "marginWidth", 0);
-    marginHeight = new SimpleIntegerProperty(this, "marginHeight", 0);
-    spacing = new SimpleIntegerProperty(this, "spacing", 0);
+        "orientation", orientation) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    marginWidth = new SimpleIntegerProperty(this, "marginWidth", 0) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    marginHeight = new SimpleIntegerProperty(this, "marginHeight", 0) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    spacing = new SimpleIntegerProperty(this, "spacing", 0) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    weighted = new SimpleBooleanProperty(this, "weighted", false) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    constraints = new IdentityHashMap<Node, FillData>();
+    sizes = new double[0];
+    breakpoints = new double[0];
+    order = new int[0];
+    getChildren().addListener(new ListChangeListener<Node>() {
+      @Override
+      public void onChanged(Change<? extends Node> change) {
+        while (change.next()) {
+          if (change.wasPermutated()) {
+            continue;
+          }
+          for (final Node child : change.getRemoved()) {
+            final FillData data = detach(child);
+            if (data != null) {
+              child.getProperties().put(CONSTRAINT_KEY, data);
+            }
+          }
+          for (final Node child : change.getAddedSubList()) {
+            attach(child, createConstraint(child));
+          }
+        }
+      }
+    });
+  }
+
+  private static FillData createConstraint(Node child) {
+    if (child.hasProperties()) {
+      final FillData data = (FillData) child.getProperties().remove(CONSTRAINT_KEY);
+      if (data != null) {
+        return data;
+      }
+    }
+    return new FillData();
+  }
+
+  private static Observable layoutObservableOf(Node child) {
+    if (child instanceof Parent) {
+      return ((Parent) child).needsLayoutProperty();
+    } else {
+      return child.layoutBoundsProperty();
+    }
+  }
+
+  private void attach(Node child, FillData data) {
+    data.owner = this;
+    layoutObservableOf(child).addListener(data);
+    constraints.put(child, data);
+  }
+
+  private FillData detach(Node child) {
+    final FillData data = constraints.remove(child);
+    if (data != null) {
+      layoutObservableOf(child).removeListener(data);
+      data.owner = null;
+    }
+    return data;
   }
 
   public void setOrientation(Orientation orientation) {
@@ -141,17 +352,31 @@ public class FillPane extends AbstractLayoutPane<FillData> {
     return marginWidth;
   }
 
+  public void setWeighted(boolean weighted) {
+    this.weighted.set(weighted);
+  }
+
+  public boolean isWeighted() {
+    return weighted.get();
+  }
+
+  public WritableBooleanValue weightedProperty() {
+    return weighted;
+  }
+
   @Override
-  protected Size computeSize(double wHint, double hHint, boolean flushCache) {
-    final Node[] children = getChildren().toArray(new Node[0]);
-    final int count = children.length;
+  protected void computeSize(double wHint, double hHint, boolean flushCache) {
+    final List<Node> children = getChildren();
+    final int count = children.size();
     double maxWidth = 0, maxHeight = 0;
+    double sumWidth = 0, sumHeight = 0;
+    final boolean weighted = this.weighted.get();
     final Orientation orientation = this.orientation.get();
     final double marginWidth = this.marginWidth.get();
     final double marginHeight = this.marginHeight.get();
     final double spacing = this.spacing.get();
     for (int i = 0; i < count; ++i) {
-      final Node child = children[i];
+      final Node child = children.get(i);
       double w = wHint, h = hHint;
       if (count > 0) {
         if ((orientation == Orientation.HORIZONTAL) && (wHint != USE_COMPUTED_SIZE)) {
@@ -161,20 +386,24 @@ public class FillPane extends AbstractLayoutPane<FillData> {
           h = Math.max(0, (hHint - ((count - 1) * spacing)) / count);
         }
       }
-      final Size size = computeChildSize(child, w, h, flushCache);
-      maxWidth = Math.max(maxWidth, size.width);
-      maxHeight = Math.max(maxHeight, size.height);
+      final FillData data = computeChildSize(child, w, h, flushCache);
+      maxWidth = Math.max(maxWidth, data.width);
+      maxHeight = Math.max(maxHeight, data.height);
+      if (weighted) {
+        sumWidth += data.clamp(data.width);
+        sumHeight += data.clamp(data.height);
+      }
     }
     double width = 0, height = 0;
     if (orientation == Orientation.HORIZONTAL) {
-      width = count * maxWidth;
+      width = (weighted ? sumWidth : count * maxWidth);
       if (count != 0) {
         width += (count - 1) * spacing;
       }
       height = maxHeight;
     } else {
       width = maxWidth;
-      height = count * maxHeight;
+      height = (weighted ? sumHeight : count * maxHeight);
       if (count != 0) {
         height += (count - 1) * spacing;
       }
@@ -187,19 +416,26 @@ public class FillPane extends AbstractLayoutPane<FillData> {
     if (hHint != USE_COMPUTED_SIZE) {
       height = hHint;
     }
-    return new Size(width, height);
+    computedWidth = width;
+    computedHeight = height;
   }
 
-  Size computeChildSize(Node control, double wHint, double hHint,
+  /**
+   * Computes the size of a child.
+   *
+   * @return the layout data of the child, whose {@code width} and
+   *         {@code height} fields store the computed size.
+   */
+  FillData computeChildSize(Node control, double wHint, double hHint,
       boolean flushCache) {
-    FillData data = getConstraint(control);
+    FillData data = constraints.get(control);
     if (data == null) {
-      data = new FillData();
-      setConstraint(control, data);
+      data = createConstraint(control);
+      attach(control, data);
     }
-    Size size = null;
+    final boolean hit;
     if ((wHint == USE_COMPUTED_SIZE) && (hHint == USE_COMPUTED_SIZE)) {
-      size = data.computeSize(control, wHint, hHint, flushCache);
+      hit = data.computeSize(control, wHint, hHint, flushCache);
     } else {
       // TEMPORARY CODE
       int trimX, trimY;
@@ -214,17 +450,31 @@ public class FillPane extends AbstractLayoutPane<FillData> {
       // }
       final double w = (wHint == USE_COMPUTED_SIZE ? wHint : Math.max(0, wHint - trimX));
       final double h = (hHint == USE_COMPUTED_SIZE ? hHint : Math.max(0, hHint - trimY));
-      size = data.computeSize(control, w, h, flushCache);
+      hit = data.computeSize(control, w, h, flushCache);
     }
-    return size;
+    if (hit) {
+      ++cacheHits;
+    } else {
+      ++cacheMisses;
+    }
+    return data;
   }
 
   @Override
   protected void layoutChildren() {
-    super.layoutChildren();
-    final Bounds rect = getLayoutBounds();
-    final Node[] children = getChildren().toArray(new Node[0]);
-    final int count = children.length;
+    //  the default implementation resizes all children to their preferred
+    //  sizes, which is useless since all children are resized below.
+    performingLayout = true;
+    try {
+      layoutCells();
+    } finally {
+      performingLayout = false;
+    }
+  }
+
+  private void layoutCells() {
+    final List<Node> children = getChildren();
+    final int count = children.size();
     if (count == 0) {
       return;
     }
@@ -233,15 +483,18 @@ public class FillPane extends AbstractLayoutPane<FillData> {
     final double marginHeight = this.marginHeight.get();
     final double spacing = this.spacing.get();
 
-    double width = rect.getWidth() - (marginWidth * 2);
-    double height = rect.getHeight() - (marginHeight * 2);
-    if (orientation == Orientation.HORIZONTAL) {
+    double width = getWidth() - (marginWidth * 2);
+    double height = getHeight() - (marginHeight * 2);
+    if (weighted.get()) {
+      layoutWeighted(children, count, orientation, marginWidth, marginHeight,
+          spacing, width, height);
+    } else if (orientation == Orientation.HORIZONTAL) {
       width -= (count - 1) * spacing;
-      double x = rect.getMinX() + marginWidth;
+      double x = marginWidth;
       final double extra = width % count;
-      final double y = rect.getMinY() + marginHeight, cellWidth = width / count;
+      final double y = marginHeight, cellWidth = width / count;
       for (int i = 0; i < count; i++) {
-        final Node child = children[i];
+        final Node child = children.get(i);
         double childWidth = cellWidth;
         if (i == 0) {
           childWidth += extra / 2;
@@ -255,12 +508,11 @@ public class FillPane extends AbstractLayoutPane<FillData> {
       }
     } else {
       height -= (count - 1) * spacing;
-      final double x = rect.getMinX() + marginWidth, cellHeight = height
-          / count;
-      double y = rect.getMinY() + marginHeight;
+      final double x = marginWidth, cellHeight = height / count;
+      double y = marginHeight;
       final double extra = height % count;
       for (int i = 0; i < count; i++) {
-        final Node child = children[i];
+        final Node child = children.get(i);
         double childHeight = cellHeight;
         if (i == 0) {
           childHeight += extra / 2;
@@ -274,4 +526,109 @@ public class FillPane extends AbstractLayoutPane<FillData> {
       }
     }
   }
+
+  /**
+   * Lays out the children in proportion to their weights and within their
+   * minimum and maximum sizes.
+   * <p>
+   * The size of a child of weight {@code w} is {@code clamp(scale * w)}, where
+   * the total size is a non-decreasing piecewise linear function of the
+   * {@code scale}, whose breakpoints are the ratios of the minimum and maximum
+   * sizes of the children to their weights. The breakpoints are sorted once,
+   * and swept in ascending order until the segment containing the available
+   * space is found, and the children are never re-measured. Since the order of
+   * the breakpoints is kept between layouts, it is usually nearly sorted, and
+   * is sorted in place by an insertion sort without any allocation.
+   */
+  private void layoutWeighted(List<Node> children, int count,
+      Orientation orientation, double marginWidth, double marginHeight,
+      double spacing, double width, double height) {
+    if (sizes.length < count) {
+      sizes = new double[count];
+      breakpoints = new double[2 * count];
+      order = new int[2 * count];
+      for (int k = 0; k < order.length; ++k) {
+        order[k] = k;
+      }
+    }
+    final boolean horizontal = (orientation == Orientation.HORIZONTAL);
+    double remaining = (horizontal ? width : height) - ((count - 1) * spacing);
+    //  breakpoints[i] is the scale at which the i-th child leaves its minimum
+    //  size, and breakpoints[n + i] the scale at which it reaches its maximum.
+    //  The order array keeps the indexes of the breakpoints of the previous
+    //  layout, so sorting them again is usually cheap.
+    final int n = sizes.length;
+    double fixed = 0;
+    int used = 0;
+    for (int i = 0; i < n; ++i) {
+      if (i < count) {
+        final FillData data = constraints.get(children.get(i));
+        if (data.weight > 0) {
+          breakpoints[i] = data.minSize / data.weight;
+          breakpoints[n + i] = data.maxSize / data.weight;
+          fixed += data.minSize;
+          used += 2;
+          continue;
+        }
+        remaining -= data.minSize;
+      }
+      //  NaN is sorted after all numbers
+      breakpoints[i] = breakpoints[n + i] = Double.NaN;
+    }
+    sortOrder(order, breakpoints);
+    double scale = 0;
+    if (remaining > fixed) {
+      scale = Double.POSITIVE_INFINITY;
+      double weight = 0;
+      for (int k = 0; k < used; ++k) {
+        final int index = order[k];
+        final double breakpoint = breakpoints[index];
+        if ((weight > 0) && (fixed + breakpoint * weight >= remaining)) {
+          scale = (remaining - fixed) / weight;
+          break;
+        }
+        final FillData data = constraints.get(children.get(index % n));
+        if (index < n) {
+          fixed -= data.minSize;
+          weight += data.weight;
+        } else {
+          fixed += data.maxSize;
+          weight -= data.weight;
+        }
+      }
+    }
+    for (int i = 0; i < count; ++i) {
+      final FillData data = constraints.get(children.get(i));
+      sizes[i] = (data.weight > 0 ? data.clamp(scale * data.weight)
+                                  : data.minSize);
+    }
+    double pos = (horizontal ? marginWidth : marginHeight);
+    for (int i = 0; i < count; ++i) {
+      final Node child = children.get(i);
+      if (horizontal) {
+        child.resizeRelocate(pos, marginHeight, sizes[i], height);
+      } else {
+        child.resizeRelocate(marginWidth, pos, width, sizes[i]);
+      }
+      pos += sizes[i] + spacing;
+    }
+  }
+
+  /**
+   * Sorts the indexes of the breakpoints by their values with an insertion
+   * sort, which is linear for the nearly sorted order kept between layouts.
+   * NaN values are sorted after all numbers.
+   */
+  private static void sortOrder(int[] order, double[] keys) {
+    for (int i = 1; i < order.length; ++i) {
+      final int index = order[i];
+      final double key = keys[index];
+      int j = i - 1;
+      while ((j >= 0) && (Double.compare(keys[order[j]], key) > 0)) {
+        order[j + 1] = order[j];
+        --j;
+      }
+      order[j + 1] = index;
+    }
+  }
 }
@@ -0,0 +1,198 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Haixing Hu (https://github.com/Haixing-Hu/) - Initial implementation and API.
+ *
+ ******************************************************************************/
+
+package com.github.haixing_hu.javafx.pane;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+
+/**
+ * The layout data of the {@link GridLayoutPane}, which is modeled on the SWT's
+ * {@code GridData}.
+ * <p>
+ * The preferred size of the child is measured once and cached in the layout
+ * data. The cached size is flushed when the child requests a layout, or when
+ * the layout bounds of a child which is not a {@link javafx.scene.Parent}
+ * change, unless the change is caused by the layout pass of the owner pane.
+ *
+ * @author Haixing Hu
+ */
+public class GridData implements InvalidationListener {
+
+  /**
+   * The alignments of a child within its cell.
+   */
+  public static enum Alignment {
+    /**
+     * Aligns the child to the left or top of its cell.
+     */
+    BEGINNING,
+
+    /**
+     * Aligns the child to the center of its cell.
+     */
+    CENTER,
+
+    /**
+     * Aligns the child to the right or bottom of its cell.
+     */
+    END,
+
+    /**
+     * Resizes the child to fill its cell.
+     */
+    FILL
+  }
+
+  /**
+   * Specifies how the child is positioned horizontally within its cell.
+   * <p>
+   * The default value is {@link Alignment#BEGINNING}.
+   */
+  public Alignment horizontalAlignment = Alignment.BEGINNING;
+
+  /**
+   * Specifies how the child is positioned vertically within its cell.
+   * <p>
+   * The default value is {@link Alignment#CENTER}.
+   */
+  public Alignment verticalAlignment = Alignment.CENTER;
+
+  /**
+   * Specifies the number of columns the child will take up.
+   * <p>
+   * The default value is 1.
+   */
+  public int horizontalSpan = 1;
+
+  /**
+   * Specifies whether the column of the child grabs the excess horizontal
+   * space.
+   * <p>
+   * The default value is {@code false}.
+   */
+  public boolean grabExcessHorizontalSpace = false;
+
+  /**
+   * Specifies whether the row of the child grabs the excess vertical space.
+   * <p>
+   * The default value is {@code false}.
+   */
+  public boolean grabExcessVerticalSpace = false;
+
+  /**
+   * Specifies the preferred width of the child, or -1 to use the preferred
+   * width computed by the child.
+   * <p>
+   * The default value is -1.
+   */
+  public double widthHint = - 1;
+
+  /**
+   * Specifies the preferred height of the child, or -1 to use the preferred
+   * height computed by the child.
+   * <p>
+   * The default value is -1.
+   */
+  public double heightHint = - 1;
+
+  /**
+   * Specifies the number of pixels of indentation placed along the left side
+   * of the cell.
+   * <p>
+   * The default value is 0.
+   */
+  public double horizontalIndent = 0;
+
+  /**
+   * Specifies whether the child is excluded from the layout.
+   * <p>
+   * The default value is {@code false}.
+   */
+  public boolean exclude = false;
+
+  AbstractLayoutPane<?> owner;
+  int row;
+  int column;
+  double width = - 1;
+  double height = - 1;
+
+  public GridData() {}
+
+  public GridData(Alignment horizontalAlignment, Alignment verticalAlignment,
+      boolean grabExcessHorizontalSpace, boolean grabExcessVerticalSpace) {
+    this.horizontalAlignment = horizontalAlignment;
+    this.verticalAlignment = verticalAlignment;
+    this.grabExcessHorizontalSpace = grabExcessHorizontalSpace;
+    this.grabExcessVerticalSpace = grabExcessVerticalSpace;
+  }
+
+  public GridData(Alignment horizontalAlignment, Alignment verticalAlignment,
+      boolean grabExcessHorizontalSpace, boolean grabExcessVerticalSpace,
+      int horizontalSpan) {
+    this(horizontalAlignment, verticalAlignment, grabExcessHorizontalSpace,
+        grabExcessVerticalSpace);
+    this.horizontalSpan = horizontalSpan;
+  }
+
+  /**
+   * Measures the preferred size of a child, and stores it in the
+   * {@link #width} and {@link #height} fields.
+   *
+   * @return {@code true} if the size was answered from the cache; {@code false}
+   *         otherwise.
+   */
+  boolean computeSize(Node control, boolean flushCache) {
+    if (flushCache) {
+      flushCache();
+    }
+    if ((width == - 1) || (height == - 1)) {
+      width = (widthHint >= 0 ? widthHint : control.prefWidth(- 1));
+      height = (heightHint >= 0 ? heightHint : control.prefHeight(- 1));
+      return false;
+    }
+    return true;
+  }
+
+  void flushCache() {
+    width = height = - 1;
+  }
+
+  @Override
+  public void invalidated(Observable observable) {
+    //  gets the value to re-validate the observable, otherwise we won't be
+    //  notified of the subsequent changes
+    final Object value = ((ObservableValue<?>) observable).getValue();
+    if (Boolean.FALSE.equals(value)) {
+      return;     //  the layout of the child was finished
+    }
+    if ((owner != null) && owner.performingLayout) {
+      return;     //  the change was caused by the layout of the owner
+    }
+    flushCache();
+  }
+
+  @Override
+  public String toString() {
+    return "GridData [horizontalAlignment=" + horizontalAlignment
+        + ", verticalAlignment=" + verticalAlignment + ", horizontalSpan="
+        + horizontalSpan + ", grabExcessHorizontalSpace="
+        + grabExcessHorizontalSpace + ", grabExcessVerticalSpace="
+        + grabExcessVerticalSpace + ", widthHint=" + widthHint
+        + ", heightHint=" + heightHint + ", horizontalIndent="
+        + horizontalIndent + ", exclude=" + exclude + "]";
+  }
+}
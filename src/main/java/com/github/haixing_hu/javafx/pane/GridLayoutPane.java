@@ -0,0 +1,604 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Haixing Hu (https://github.com/Haixing-Hu/) - Initial implementation and API.
+ *
+ ******************************************************************************/
+
+package com.github.haixing_hu.javafx.pane;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.beans.Observable;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.value.WritableBooleanValue;
+import javafx.beans.value.WritableIntegerValue;
+import javafx.collections.ListChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+/**
+ * A pane implements the SWT's grid layout.
+ * <p>
+ * The children are laid out in a grid of {@code numColumns} columns, from left
+ * to right and from top to bottom. Each child is configured by a
+ * {@link GridData}, which specifies the number of columns spanned by the
+ * child, its alignments within its cell, and whether its column and row grab
+ * the excess space of the pane.
+ * <p>
+ * The preferred sizes of the children are measured once and cached in their
+ * layout data, and the column widths and row heights are solved in a single
+ * pass over the children, using scratch buffers owned by the pane, so that a
+ * layout pass takes time linear in the number of children and does not
+ * allocate objects. Unlike SWT, a child spans only one row, and the preferred
+ * height of a child does not depend on the width of its cell.
+ * <p>
+ * The layout data of a child may be changed after the child is added; in this
+ * case the {@link #layout(boolean)} method of the pane should be called with
+ * {@code true}, just like the {@code layout(boolean)} method of a SWT
+ * composite, so that the cached sizes of the children are flushed.
+ * <p>
+ * The layout data set by {@link #setConstraint(Node, GridData)} before a node
+ * is added to a pane are stored in the properties of the node, and are moved
+ * to the pane when the node is added; they are moved back to the properties of
+ * the node when it is removed.
+ *
+ * @author Haixing Hu
+ */
+public class GridLayoutPane extends AbstractLayoutPane<GridData> {
+
+  private static final String CONSTRAINT_KEY = "grid-layout-pane-data";
+
+  public static void setConstraint(Node n, GridData griddata) {
+    if (n.getParent() instanceof GridLayoutPane) {
+      final GridLayoutPane pane = (GridLayoutPane) n.getParent();
+      if (pane.constraints.containsKey(n)) {
+        pane.detach(n);
+        pane.attach(n, griddata);
+        pane.requestLayout();
+        return;
+      }
+    }
+    n.getProperties().put(CONSTRAINT_KEY, griddata);
+  }
+
+  public static GridData getConstraint(Node n) {
+    if (n.getParent() instanceof GridLayoutPane) {
+      final GridData data = ((GridLayoutPane) n.getParent()).constraints.get(n);
+      if (data != null) {
+        return data;
+      }
+    }
+    if (n.hasProperties()) {
+      return (GridData) n.getProperties().get(CONSTRAINT_KEY);
+    }
+    return null;
+  }
+
+  private final Map<Node, GridData> constraints;
+
+  /**
+   * The scratch buffers of the solver.
+   */
+  private double[] columnWidths;
+  private boolean[] columnGrabs;
+  private double[] rowHeights;
+  private boolean[] rowGrabs;
+  private int rowCount;
+
+  /**
+   * The property {@code numColumns} specifies the number of columns of the
+   * grid.
+   * <p>
+   * The default value is 1.
+   */
+  private final WritableIntegerValue numColumns;
+
+  /**
+   * The property {@code makeColumnsEqualWidth} specifies whether all columns
+   * have the same width.
+   * <p>
+   * The default value is {@code false}.
+   */
+  private final WritableBooleanValue makeColumnsEqualWidth;
+
+  /**
+   * The property {@code marginWidth} specifies the number of pixels of
+   * horizontal margin that will be placed along the left and right edges of the
+   * layout.
+   * <p>
+   * The default value is 0.
+   */
+  private final WritableIntegerValue marginWidth;
+
+  /**
+   * The property {@code marginHeight} specifies the number of pixels of
+   * vertical margin that will be placed along the top and bottom edges of the
+   * layout.
+   * <p>
+   * The default value is 0.
+   */
+  private final WritableIntegerValue marginHeight;
+
+  /**
+   * The property {@code horizontalSpacing} specifies the number of pixels
+   * between the right edge of one cell and the left edge of its neighboring
+   * cell.
+   * <p>
+   * The default value is 5.
+   */
+  private final WritableIntegerValue horizontalSpacing;
+
+  /**
+   * The property {@code verticalSpacing} specifies the number of pixels
+   * between the bottom edge of one cell and the top edge of its neighboring
+   * cell.
+   * <p>
+   * The default value is 5.
+   */
+  private final WritableIntegerValue verticalSpacing;
+
+  public GridLayoutPane() {
+    this(1);
+  }
+
+  public GridLayoutPane(int numColumns) {
+    super();
+    this.numColumns = new SimpleIntegerProperty(this, "numColumns", numColumns) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    makeColumnsEqualWidth = new SimpleBooleanProperty(this,
+        "makeColumnsEqualWidth", false) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    marginWidth = new SimpleIntegerProperty(this, "marginWidth", 0) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    marginHeight = new SimpleIntegerProperty(this, "marginHeight", 0) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    horizontalSpacing = new SimpleIntegerProperty(this, "horizontalSpacing", 5) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    verticalSpacing = new SimpleIntegerProperty(this, "verticalSpacing", 5) {
+      @Override
+      protected void invalidated() {
+        requestLayout();
+      }
+    };
+    constraints = new IdentityHashMap<Node, GridData>();
+    columnWidths = new double[0];
+    columnGrabs = new boolean[0];
+    rowHeights = new double[0];
+    rowGrabs = new boolean[0];
+    rowCount = 0;
+    getChildren().addListener(new ListChangeListener<Node>() {
+      @Override
+      public void onChanged(Change<? extends Node> change) {
+        while (change.next()) {
+          if (change.wasPermutated()) {
+            continue;
+          }
+          for (final Node child : change.getRemoved()) {
+            final GridData data = detach(child);
+            if (data != null) {
+              child.getProperties().put(CONSTRAINT_KEY, data);
+            }
+          }
+          for (final Node child : change.getAddedSubList()) {
+            attach(child, createConstraint(child));
+          }
+        }
+      }
+    });
+  }
+
+  private static GridData createConstraint(Node child) {
+    if (child.hasProperties()) {
+      final GridData data = (GridData) child.getProperties().remove(CONSTRAINT_KEY);
+      if (data != null) {
+        return data;
+      }
+    }
+    return new GridData();
+  }
+
+  private static Observable layoutObservableOf(Node child) {
+    if (child instanceof Parent) {
+      return ((Parent) child).needsLayoutProperty();
+    } else {
+      return child.layoutBoundsProperty();
+    }
+  }
+
+  private void attach(Node child, GridData data) {
+    data.owner = this;
+    layoutObservableOf(child).addListener(data);
+    constraints.put(child, data);
+  }
+
+  private GridData detach(Node child) {
+    final GridData data = constraints.remove(child);
+    if (data != null) {
+      layoutObservableOf(child).removeListener(data);
+      data.owner = null;
+    }
+    return data;
+  }
+
+  /**
+   * Lays out the children of this pane immediately.
+   *
+   * @param flushCache
+   *          whether to flush the cached sizes of the children, which must be
+   *          {@code true} if the layout data of some children were changed.
+   */
+  public void layout(boolean flushCache) {
+    if (flushCache) {
+      for (final GridData data : constraints.values()) {
+        data.flushCache();
+      }
+    }
+    requestLayout();
+    layout();
+  }
+
+  public void setNumColumns(int numColumns) {
+    this.numColumns.set(numColumns);
+  }
+
+  public int getNumColumns() {
+    return numColumns.get();
+  }
+
+  public WritableIntegerValue numColumnsProperty() {
+    return numColumns;
+  }
+
+  public void setMakeColumnsEqualWidth(boolean makeColumnsEqualWidth) {
+    this.makeColumnsEqualWidth.set(makeColumnsEqualWidth);
+  }
+
+  public boolean isMakeColumnsEqualWidth() {
+    return makeColumnsEqualWidth.get();
+  }
+
+  public WritableBooleanValue makeColumnsEqualWidthProperty() {
+    return makeColumnsEqualWidth;
+  }
+
+  public void setMarginWidth(int marginWidth) {
+    this.marginWidth.set(marginWidth);
+  }
+
+  public int getMarginWidth() {
+    return marginWidth.get();
+  }
+
+  public WritableIntegerValue marginWidthProperty() {
+    return marginWidth;
+  }
+
+  public void setMarginHeight(int marginHeight) {
+    this.marginHeight.set(marginHeight);
+  }
+
+  public int getMarginHeight() {
+    return marginHeight.get();
+  }
+
+  public WritableIntegerValue marginHeightProperty() {
+    return marginHeight;
+  }
+
+  public void setHorizontalSpacing(int horizontalSpacing) {
+    this.horizontalSpacing.set(horizontalSpacing);
+  }
+
+  public int getHorizontalSpacing() {
+    return horizontalSpacing.get();
+  }
+
+  public WritableIntegerValue horizontalSpacingProperty() {
+    return horizontalSpacing;
+  }
+
+  public void setVerticalSpacing(int verticalSpacing) {
+    this.verticalSpacing.set(verticalSpacing);
+  }
+
+  public int getVerticalSpacing() {
+    return verticalSpacing.get();
+  }
+
+  public WritableIntegerValue verticalSpacingProperty() {
+    return verticalSpacing;
+  }
+
+  private GridData dataOf(Node child) {
+    GridData data = constraints.get(child);
+    if (data == null) {
+      data = createConstraint(child);
+      attach(child, data);
+    }
+    return data;
+  }
+
+  private static boolean isExcluded(Node child, GridData data) {
+    return data.exclude || (! child.isManaged());
+  }
+
+  /**
+   * Assigns the cells of the children, measures the children, and solves the
+   * preferred widths of the columns and the preferred heights of the rows.
+   * <p>
+   * The solver takes one pass over the children for the cells, the heights of
+   * rows and the widths of single-column children, and another pass for the
+   * widths of spanning children, which enlarge the last spanned grabbing
+   * column (or the last spanned column) when needed.
+   */
+  private void solve(boolean flushCache) {
+    final List<Node> children = getChildren();
+    final int count = children.size();
+    final int columns = Math.max(1, numColumns.get());
+    final double hspacing = horizontalSpacing.get();
+    if (columnWidths.length < columns) {
+      columnWidths = new double[columns];
+      columnGrabs = new boolean[columns];
+    } else {
+      Arrays.fill(columnWidths, 0, columns, 0);
+      Arrays.fill(columnGrabs, 0, columns, false);
+    }
+    if (rowHeights.length < count) {
+      rowHeights = new double[Math.max(count, 1)];
+      rowGrabs = new boolean[Math.max(count, 1)];
+    }
+    int row = - 1;
+    int column = columns;
+    for (int i = 0; i < count; ++i) {
+      final Node child = children.get(i);
+      final GridData data = dataOf(child);
+      if (isExcluded(child, data)) {
+        continue;
+      }
+      final int span = Math.max(1, Math.min(data.horizontalSpan, columns));
+      if (column + span > columns) {
+        ++row;
+        column = 0;
+        rowHeights[row] = 0;
+        rowGrabs[row] = false;
+      }
+      data.row = row;
+      data.column = column;
+      if (data.computeSize(child, flushCache)) {
+        ++cacheHits;
+      } else {
+        ++cacheMisses;
+      }
+      rowHeights[row] = Math.max(rowHeights[row], data.height);
+      rowGrabs[row] |= data.grabExcessVerticalSpace;
+      if (span == 1) {
+        columnWidths[column] = Math.max(columnWidths[column],
+            data.width + data.horizontalIndent);
+        columnGrabs[column] |= data.grabExcessHorizontalSpace;
+      }
+      column += span;
+    }
+    rowCount = row + 1;
+    for (int i = 0; i < count; ++i) {
+      final Node child = children.get(i);
+      final GridData data = constraints.get(child);
+      final int span = Math.min(data.horizontalSpan, columns);
+      if ((span <= 1) || isExcluded(child, data)) {
+        continue;
+      }
+      final int last = data.column + span - 1;
+      double spanned = (span - 1) * hspacing;
+      int target = last;
+      boolean grabbed = false;
+      for (int c = data.column; c <= last; ++c) {
+        spanned += columnWidths[c];
+        if (columnGrabs[c]) {
+          grabbed = true;
+          target = c;
+        }
+      }
+      if (data.grabExcessHorizontalSpace && (! grabbed)) {
+        columnGrabs[last] = true;
+      }
+      final double required = data.width + data.horizontalIndent;
+      if (required > spanned) {
+        columnWidths[target] += required - spanned;
+      }
+    }
+    if (makeColumnsEqualWidth.get()) {
+      double max = 0;
+      for (int c = 0; c < columns; ++c) {
+        max = Math.max(max, columnWidths[c]);
+      }
+      Arrays.fill(columnWidths, 0, columns, max);
+    }
+  }
+
+  @Override
+  protected void computeSize(double wHint, double hHint, boolean flushCache) {
+    solve(flushCache);
+    final int columns = Math.max(1, numColumns.get());
+    double width = 0;
+    for (int c = 0; c < columns; ++c) {
+      width += columnWidths[c];
+    }
+    double height = 0;
+    for (int r = 0; r < rowCount; ++r) {
+      height += rowHeights[r];
+    }
+    width += (columns - 1) * horizontalSpacing.get() + marginWidth.get() * 2;
+    if (rowCount > 0) {
+      height += (rowCount - 1) * verticalSpacing.get();
+    }
+    height += marginHeight.get() * 2;
+    computedWidth = (wHint == USE_COMPUTED_SIZE ? width : wHint);
+    computedHeight = (hHint == USE_COMPUTED_SIZE ? height : hHint);
+  }
+
+  /**
+   * Distributes the excess space among the grabbing cells, or among all cells
+   * if none grabs.
+   */
+  private static void distribute(double[] sizes, boolean[] grabs, int count,
+      double excess) {
+    if ((count == 0) || (excess == 0)) {
+      return;
+    }
+    int grabbing = 0;
+    for (int i = 0; i < count; ++i) {
+      if (grabs[i]) {
+        ++grabbing;
+      }
+    }
+    if (grabbing == 0) {
+      if (excess > 0) {
+        return;     //  the extra space is left empty, as in SWT
+      }
+      grabbing = count;
+    }
+    final double delta = excess / grabbing;
+    for (int i = 0; i < count; ++i) {
+      if (grabs[i] || (grabbing == count)) {
+        sizes[i] = Math.max(0, sizes[i] + delta);
+      }
+    }
+  }
+
+  /**
+   * Gives every column the same share of the space available to the columns,
+   * as in SWT, so that the columns stay equal in width when the space is
+   * distributed. As in {@link #distribute}, the extra space is left empty if
+   * no column grabs.
+   */
+  private static void equalize(double[] sizes, boolean[] grabs, int count,
+      double available) {
+    double total = 0;
+    boolean grabbing = false;
+    for (int i = 0; i < count; ++i) {
+      total += sizes[i];
+      grabbing |= grabs[i];
+    }
+    if ((available > total) && (! grabbing)) {
+      return;     //  the extra space is left empty, as in SWT
+    }
+    Arrays.fill(sizes, 0, count, Math.max(0, available / count));
+  }
+
+  @Override
+  protected void layoutChildren() {
+    performingLayout = true;
+    try {
+      layoutCells();
+    } finally {
+      performingLayout = false;
+    }
+  }
+
+  private void layoutCells() {
+    solve(false);
+    final List<Node> children = getChildren();
+    final int count = children.size();
+    final int columns = Math.max(1, numColumns.get());
+    final double marginWidth = this.marginWidth.get();
+    final double marginHeight = this.marginHeight.get();
+    final double hspacing = horizontalSpacing.get();
+    final double vspacing = verticalSpacing.get();
+    double prefWidth = (columns - 1) * hspacing;
+    for (int c = 0; c < columns; ++c) {
+      prefWidth += columnWidths[c];
+    }
+    double prefHeight = (rowCount > 0 ? (rowCount - 1) * vspacing : 0);
+    for (int r = 0; r < rowCount; ++r) {
+      prefHeight += rowHeights[r];
+    }
+    if (makeColumnsEqualWidth.get()) {
+      equalize(columnWidths, columnGrabs, columns,
+          getWidth() - marginWidth * 2 - (columns - 1) * hspacing);
+    } else {
+      distribute(columnWidths, columnGrabs, columns,
+          getWidth() - marginWidth * 2 - prefWidth);
+    }
+    distribute(rowHeights, rowGrabs, rowCount,
+        getHeight() - marginHeight * 2 - prefHeight);
+    //  the children of a row occupy consecutive columns, so the offsets of
+    //  the cells are accumulated while iterating over the children.
+    int row = - 1;
+    double y = marginHeight;
+    double x = marginWidth;
+    for (int i = 0; i < count; ++i) {
+      final Node child = children.get(i);
+      final GridData data = constraints.get(child);
+      if (isExcluded(child, data)) {
+        continue;
+      }
+      if (data.row != row) {
+        if (row >= 0) {
+          y += rowHeights[row] + vspacing;
+        }
+        row = data.row;
+        x = marginWidth;
+      }
+      final int span = Math.max(1, Math.min(data.horizontalSpan, columns));
+      double cellWidth = (span - 1) * hspacing;
+      for (int c = data.column; c < data.column + span; ++c) {
+        cellWidth += columnWidths[c];
+      }
+      final double cellHeight = rowHeights[row];
+      final double availableWidth = Math.max(0, cellWidth - data.horizontalIndent);
+      final double childWidth = (data.horizontalAlignment == GridData.Alignment.FILL
+          ? availableWidth : Math.min(data.width, availableWidth));
+      final double childHeight = (data.verticalAlignment == GridData.Alignment.FILL
+          ? cellHeight : Math.min(data.height, cellHeight));
+      final double childX = x + data.horizontalIndent
+          + offset(data.horizontalAlignment, availableWidth - childWidth);
+      final double childY = y + offset(data.verticalAlignment, cellHeight - childHeight);
+      child.resizeRelocate(childX, childY, childWidth, childHeight);
+      x += cellWidth + hspacing;
+    }
+  }
+
+  private static double offset(GridData.Alignment alignment, double space) {
+    switch (alignment) {
+      case CENTER:
+        return space / 2;
+      case END:
+        return space;
+      case BEGINNING:
+      case FILL:
+      default:
+        return 0;
+    }
+  }
+}
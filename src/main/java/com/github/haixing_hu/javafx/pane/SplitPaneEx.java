@@ -14,57 +14,138 @@
 
 package com.github.haixing_hu.javafx.pane;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
 import javafx.scene.Node;
 import javafx.scene.control.SplitPane;
-import javafx.scene.layout.Pane;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * An extension of {@link SplitPane} which supports hiding and showing a child
- * pane.
+ * An extension of {@link SplitPane} which supports hiding and showing its
+ * children.
  * <p>
- * <b>NOTE:</b> Current implementation of this class has the following
- * limitations:
- * <ul>
- * <li>It <b>does not</b> support the dynamically changing of children panes.
- * That is, after the first call to {@link #hideItem(int)},
- * {@link #showItem(int)} or {@link #setItemVisible(int, boolean)}, the items of
- * this split pane should not be added or removed anymore.</li>
- * <li>Showing a hidden node will try to restore its original occupied
- * proportion. Until now I don't know any better algorithm to do that.
- * Therefore, if the split pane has only two children, the effect of this
- * implementation is O.K., but if the split pane has more than two children, the
- * effect may be not satisfiable.</li>
- * </ul>
+ * The split pane keeps track of all of its items, including the hidden ones,
+ * in their display order; the {@code index} arguments of the functions in this
+ * class refer to this order. Each item occupies a share of the split pane,
+ * stored as a weight normalized so that the weights of all items sum to 1. The
+ * visible items divide the split pane in proportion to their weights, so that
+ * hiding an item distributes its space to all the other visible items in
+ * proportion, and showing it again restores exactly the previous proportions
+ * of all items.
+ * <p>
+ * The weights of the visible items are read back from the divider positions
+ * before each hiding or showing, so that the dividers dragged by the user are
+ * respected. Several items could be hidden or shown at once by
+ * {@link #setItemsVisible(boolean, int...)}, which updates the items and the
+ * dividers only once, so the split pane is laid out in one pass.
+ * <p>
+ * The items added to or removed from {@link #getItems()} directly are tracked
+ * as well. A newly added item is visible, and is given the average weight of
+ * the visible items.
  *
  * @author Haixing Hu
  */
 public class SplitPaneEx extends SplitPane {
 
+  /**
+   * The tolerance used to decide whether the hidden items occupy the whole
+   * pane.
+   */
+  private static final double EPSILON = 1e-4;
+
+  /**
+   * The tolerance used to decide whether the dividers have been moved since
+   * they were positioned by this split pane, if the pane has not been laid
+   * out yet.
+   */
+  private static final double DEFAULT_TOLERANCE = 0.01;
+
   private final Logger logger;
-  private Node[] originalItems;
-  private boolean[] visibles;
-  private double[] proportions;
+  private final List<Item> order;
+  private final Map<Node, Item> tracked;
+  private double[] lastPositions;
+  private boolean updating;
 
   public SplitPaneEx() {
     super();
     logger = LoggerFactory.getLogger(this.getClass());
-    visibles = null;
-    originalItems = null;
-    proportions = null;
+    order = new ArrayList<Item>();
+    tracked = new IdentityHashMap<Node, Item>();
+    lastPositions = null;
+    updating = false;
+    getItems().addListener(new ListChangeListener<Node>() {
+      @Override
+      public void onChanged(Change<? extends Node> change) {
+        if (! updating) {
+          track();
+        }
+      }
+    });
+  }
+
+  /**
+   * Gets the number of items of this pane, including the hidden items.
+   *
+   * @return the number of items of this pane, including the hidden items.
+   */
+  public final int getItemCount() {
+    return order.size();
+  }
+
+  /**
+   * Gets an item of this pane.
+   *
+   * @param index
+   *          the index of an item, including the hidden items.
+   * @return the item with the specified index.
+   * @throws IllegalArgumentException
+   *           if the index is invalid.
+   */
+  public final Node getItem(int index) {
+    return itemAt(index).node;
+  }
+
+  /**
+   * Tests whether an item of this pane is visible.
+   *
+   * @param index
+   *          the index of an item, including the hidden items.
+   * @return {@code true} if the item is visible; {@code false} otherwise.
+   * @throws IllegalArgumentException
+   *           if the index is invalid.
+   */
+  public final boolean isItemVisible(int index) {
+    return itemAt(index).visible;
+  }
+
+  /**
+   * Gets the weight of an item of this pane.
+   *
+   * @param index
+   *          the index of an item, including the hidden items.
+   * @return the share of this pane the item occupies when all items are
+   *         visible. The weights of all items sum to 1.
+   * @throws IllegalArgumentException
+   *           if the index is invalid.
+   */
+  public final double getItemWeight(int index) {
+    syncWeights();
+    return itemAt(index).weight;
   }
 
-  private final void init() {
-    originalItems = getItems().toArray(new Node[0]);
-    visibles = new boolean[originalItems.length];
-    proportions = new double[originalItems.length];
-    Arrays.fill(visibles, true);
-    Arrays.fill(proportions, 0.0);
+  private Item itemAt(int index) {
+    if ((index < 0) || (index >= order.size())) {
+      throw new IllegalArgumentException("Invalid index of item.");
+    }
+    return order.get(index);
   }
 
   /**
@@ -78,53 +159,7 @@ public class SplitPaneEx extends SplitPane {
    *           if the index is invalid.
    */
   public final void hideItem(int index) {
-    logger.trace("Hide item {}", index);
-    if (visibles == null) {
-      init();
-    }
-    if ((index < 0) || (index >= visibles.length)) {
-      throw new IllegalArgumentException("Invalid index of item.");
-    }
-    if (! visibles[index]) { // the node has already been hidden
-      return;
-    }
-    final ObservableList<Node> items = getItems();
-    if (items.size() <= 1) {
-      logger
-          .warn("All other children panes were hidden, so ignore this action.");
-      return;
-    }
-    final Node node = originalItems[index];
-    // find the node in the item list
-    final int pos = findNode(items, node);
-    if (pos >= items.size()) {
-      logger.error("Try to hide a non-exist node.");
-      return;
-    }
-    // member the proportion that the node occupies
-    final double[] positions = getDividerPositions();
-    logger.debug("pos = {}", pos);
-    logger.debug("positions = {}", positions);
-    proportions[index] = getProportion(positions, pos);
-    logger.debug("proportions[index] = {}", proportions[index]);
-    // remove the node from the item list
-    items.remove(pos);
-    // set the new divider positions
-    final double[] newPositions = getPositiosAfterRemoving(positions, pos);
-    logger.debug("newPositions = {}", newPositions);
-    setDividerPositions(newPositions);
-    logger.debug("After setting, positions = {}", getDividerPositions());
-    visibles[index] = false;
-  }
-
-  private int findNode(ObservableList<Node> items, Node node) {
-    final int n = items.size();
-    for (int i = 0; i < n; ++i) {
-      if (items.get(i) == node) {
-        return i;
-      }
-    }
-    return n;
+    setItemsVisible(false, index);
   }
 
   /**
@@ -138,135 +173,275 @@ public class SplitPaneEx extends SplitPane {
    *           if the index is invalid.
    */
   public final void showItem(int index) {
-    logger.trace("Show item {}", index);
-    if (visibles == null) {
-      init();
+    setItemsVisible(true, index);
+  }
+
+  /**
+   * Sets the visibility of a child pane.
+   *
+   * @param index
+   *          the index of a child pane.
+   * @param visible
+   *          indicates whether the child pane is to be visible.
+   * @throws IllegalArgumentException
+   *           if the index is invalid.
+   */
+  public final void setItemVisible(int index, boolean visible) {
+    setItemsVisible(visible, index);
+  }
+
+  /**
+   * Hides several child nodes of this pane at once.
+   *
+   * @param indexes
+   *          the indexes of the child nodes to hide.
+   * @throws IllegalArgumentException
+   *           if any index is invalid.
+   * @see #setItemsVisible(boolean, int...)
+   */
+  public final void hideItems(int... indexes) {
+    setItemsVisible(false, indexes);
+  }
+
+  /**
+   * Shows several child nodes of this pane at once.
+   *
+   * @param indexes
+   *          the indexes of the child nodes to show.
+   * @throws IllegalArgumentException
+   *           if any index is invalid.
+   * @see #setItemsVisible(boolean, int...)
+   */
+  public final void showItems(int... indexes) {
+    setItemsVisible(true, indexes);
+  }
+
+  /**
+   * Sets the visibility of several child panes at once.
+   * <p>
+   * The items and the dividers of this pane are updated only once, no matter
+   * how many child panes are hidden or shown. If the call would hide all child
+   * panes, it is ignored.
+   *
+   * @param visible
+   *          indicates whether the child panes are to be visible.
+   * @param indexes
+   *          the indexes of the child panes.
+   * @throws IllegalArgumentException
+   *           if any index is invalid.
+   */
+  public final void setItemsVisible(boolean visible, int... indexes) {
+    logger.trace("Set items {} visible to {}", indexes, visible);
+    for (final int index : indexes) {
+      itemAt(index);    //  checks the indexes before changing anything
     }
-    if ((index < 0) || (index >= visibles.length)) {
-      throw new IllegalArgumentException("Invalid index of item.");
+    syncWeights();
+    final List<Item> changed = new ArrayList<Item>(indexes.length);
+    for (final int index : indexes) {
+      final Item item = order.get(index);
+      if (item.visible != visible) {
+        item.visible = visible;
+        changed.add(item);
+      }
     }
-    if (visibles[index]) { // the node has already been shown
+    if (changed.isEmpty()) {
       return;
     }
-    final Node node = originalItems[index];
-    if (! (node instanceof Pane)) {
-      throw new IllegalArgumentException("Only pane node can be hidden.");
+    if ((! visible) && (getItems().size() <= changed.size())) {
+      logger.warn("All other children panes were hidden, so ignore this action.");
+      for (final Item item : changed) {
+        item.visible = true;
+      }
+      return;
     }
-    // find the insertion position of the node
-    final ObservableList<Node> items = getItems();
-    final int pos = findInsertPosition(items, node);
-    logger.debug("pos = {}", pos);
-    final double[] positions = getDividerPositions();
-    logger.debug("positions = {}", positions);
-    // insert the node to the item list
-    items.add(pos, node);
-    // restore the original proportion occupied by the node
-    final double[] newPositions = getPositionsAfterInsertion(positions, pos,
-        proportions[index]);
-    logger.debug("proportions[index] = {}", proportions[index]);
-    logger.debug("newPositions = {}", newPositions);
-    setDividerPositions(newPositions);
-    logger.debug("After setting, positions = {}", getDividerPositions());
-
-    visibles[index] = true;
+    apply();
   }
 
-  private final int findInsertPosition(ObservableList<Node> items, Node node) {
+  /**
+   * Updates the weights of the visible items from the divider positions, if
+   * the dividers have been moved since they were positioned by this pane.
+   */
+  private void syncWeights() {
+    final ObservableList<Node> items = getItems();
     final int n = items.size();
-    int i = 0;
-    for (; i < n; ++i) {
-      if (isBefore(node, items.get(i))) {
-        return i;
+    final double[] positions = getDividerPositions();
+    if ((n == 0) || (positions.length != (n - 1))
+        || isPositioned(positions)) {
+      return;
+    }
+    double hidden = 0;
+    for (final Item item : order) {
+      if (! item.visible) {
+        hidden += item.weight;
       }
     }
-    return n;
+    double total = 1 - hidden;
+    if (total < EPSILON) {
+      //  the hidden items occupy everything, shrinks them by half
+      for (final Item item : order) {
+        item.weight /= (2 * hidden);
+      }
+      total = 0.5;
+    }
+    double start = 0;
+    for (int i = 0; i < n; ++i) {
+      final double end = (i < (n - 1) ? positions[i] : 1);
+      tracked.get(items.get(i)).weight = Math.max(0, end - start) * total;
+      start = end;
+    }
+    lastPositions = positions;
   }
 
-  private double getProportion(double[] positions, int pos) {
-    final int n = positions.length;
-    if (n == 0) {
-      return 1.0;
+  private boolean isPositioned(double[] positions) {
+    if ((lastPositions == null) || (lastPositions.length != positions.length)) {
+      return false;
     }
-    if (pos == 0) { // this is the first child
-      return positions[0];
-    } else if (pos == n) { // this is the last child
-      return 1.0 - positions[n - 1];
-    } else { // this is the middle child
-      return positions[pos] - positions[pos - 1];
+    final double tolerance = getPositionTolerance();
+    for (int i = 0; i < positions.length; ++i) {
+      if (Math.abs(positions[i] - lastPositions[i]) > tolerance) {
+        return false;
+      }
     }
+    return true;
+  }
+
+  /**
+   * Gets the tolerance of the divider positions, which is about one pixel
+   * along the orientation of this pane, since the skin snaps the dividers to
+   * pixels.
+   */
+  private double getPositionTolerance() {
+    final double size = (getOrientation() == Orientation.HORIZONTAL ? getWidth()
+                                                                     : getHeight());
+    return (size > 1 ? 1 / size : DEFAULT_TOLERANCE);
   }
 
-  private double[] getPositiosAfterRemoving(double[] positions, int pos) {
-    final int n = positions.length;
-    if (n == 1) {
-      return new double[0];
+  /**
+   * Updates the items of this pane to the visible items, and positions the
+   * dividers in proportion to their weights.
+   */
+  private void apply() {
+    final ObservableList<Node> items = getItems();
+    int visibleCount = 0;
+    double sum = 0;
+    updating = true;
+    try {
+      //  the items are always a subsequence of the tracked order, so they
+      //  could be updated by inserting and removing only the changed nodes
+      int pos = 0;
+      for (final Item item : order) {
+        final boolean present = (pos < items.size()) && (items.get(pos) == item.node);
+        if (item.visible) {
+          if (! present) {
+            items.add(pos, item.node);
+          }
+          ++pos;
+          ++visibleCount;
+          sum += item.weight;
+        } else if (present) {
+          items.remove(pos);
+        }
+      }
+    } finally {
+      updating = false;
     }
-    final double[] result = new double[n - 1];
-    if (pos == 0) { // remove the first child
-      // all spaces are allocated to its right sibling
-      System.arraycopy(positions, 1, result, 0, n - 1);
-    } else if (pos == n) { // remove the last child
-      // all spaces are allocated to its left sibling
-      System.arraycopy(positions, 0, result, 0, n - 1);
-    } else { // remove the middle child
-      // the spaces are allocated to its left and right sibling equally
-      System.arraycopy(positions, 0, result, 0, pos - 1);
-      System.arraycopy(positions, pos + 1, result, pos, n - pos - 1);
-      result[pos - 1] = (positions[pos - 1] + positions[pos]) / 2;
+    final double[] positions = new double[Math.max(0, visibleCount - 1)];
+    double acc = 0;
+    int i = 0;
+    for (final Item item : order) {
+      if (item.visible && (i < positions.length)) {
+        acc += (sum > 0 ? item.weight / sum : 1.0 / visibleCount);
+        positions[i++] = acc;
+      }
     }
-    return result;
+    logger.debug("positions = {}", positions);
+    setDividerPositions(positions);
+    lastPositions = positions;
   }
 
-  private double[] getPositionsAfterInsertion(double[] positions, int pos,
-      double proportion) {
-    final int n = positions.length;
-    final double[] result = new double[n + 1];
-    if (pos == 0) { // insert as the first child
-      // all spaces are collected from its right sibling
-      result[0] = proportion;
-      System.arraycopy(positions, 0, result, 1, n);
-    } else if (pos == (n + 1)) { // insert as the last child
-      // all spaces are collected from its left sibling
-      System.arraycopy(positions, 0, result, 0, n);
-      result[n] = 1.0 - proportion;
-    } else { // insert as the middle child
-      // the spaces are collected from its left and right sibling equally
-      System.arraycopy(positions, 0, result, 0, pos - 1);
-      System.arraycopy(positions, pos, result, pos + 1, n - pos);
-      result[pos - 1] = positions[pos - 1] - (proportion / 2);
-      result[pos] = positions[pos - 1] + (proportion / 2);
+  /**
+   * Synchronizes the tracked order with the items changed directly.
+   * <p>
+   * The hidden items keep their places in the order, and the places of the
+   * visible items are filled by the items in the order of the item list. The
+   * new items are placed before the existing item following them in the item
+   * list, and are given the average weight of the visible items.
+   */
+  private void track() {
+    final ObservableList<Node> items = getItems();
+    double visibleWeight = 0;
+    int visibleCount = 0;
+    for (final Item item : order) {
+      if (item.visible) {
+        visibleWeight += item.weight;
+        ++visibleCount;
+      }
+    }
+    final double weight = (visibleCount > 0 ? visibleWeight / visibleCount
+                                            : 1.0 / items.size());
+    final Map<Node, Item> previous = new IdentityHashMap<Node, Item>(tracked);
+    final List<Item> current = new ArrayList<Item>(items.size());
+    tracked.clear();
+    for (final Node node : items) {
+      Item item = previous.remove(node);
+      if (item == null) {
+        item = new Item(node, weight);
+        item.fresh = true;
+      }
+      item.visible = true;
+      tracked.put(node, item);
+      current.add(item);
     }
-    return result;
+    final List<Item> result = new ArrayList<Item>(order.size() + items.size());
+    int next = 0;
+    for (final Item item : order) {
+      if (tracked.get(item.node) == item) {
+        while (current.get(next).fresh) {
+          result.add(current.get(next++));
+        }
+        result.add(current.get(next++));
+      } else if (previous.containsKey(item.node) && ! item.visible) {
+        tracked.put(item.node, item);
+        result.add(item);
+      }
+      //  otherwise the visible item was removed
+    }
+    while (next < current.size()) {
+      result.add(current.get(next++));
+    }
+    for (final Item item : result) {
+      item.fresh = false;
+    }
+    order.clear();
+    order.addAll(result);
+    normalize();
+    lastPositions = null;
   }
 
-  private final boolean isBefore(Node node1, Node node2) {
-    for (int i = 0; i < originalItems.length; ++i) {
-      if (originalItems[i] == node1) {
-        return true;
-      } else if (originalItems[i] == node2) {
-        return false;
-      }
+  private void normalize() {
+    double sum = 0;
+    for (final Item item : order) {
+      sum += item.weight;
+    }
+    for (final Item item : order) {
+      item.weight = (sum > 0 ? item.weight / sum : 1.0 / order.size());
     }
-    return false;
   }
 
   /**
-   * Sets the visibility of a child pane.
-   *
-   * @param index
-   *          the index of a child pane.
-   * @param visible
-   *          indicates whether the child pane is to be visible.
-   * @throws IllegalArgumentException
-   *           if the index is invalid.
+   * An item of a {@link SplitPaneEx}.
    */
-  public final void setItemVisible(int index, boolean visible) {
-    logger.trace("Set item {} visible to {}", index, visible);
-    if (visible) {
-      showItem(index);
-    } else {
-      hideItem(index);
+  private static final class Item {
+    final Node node;
+    double weight;
+    boolean visible;
+    boolean fresh;
+
+    Item(Node node, double weight) {
+      this.node = node;
+      this.weight = weight;
+      this.visible = true;
+      this.fresh = false;
     }
   }
-
 }
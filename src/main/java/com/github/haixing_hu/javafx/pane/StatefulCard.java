@@ -0,0 +1,49 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Haixing Hu (https://github.com/Haixing-Hu/) - Initial implementation and API.
+ *
+ ******************************************************************************/
+
+package com.github.haixing_hu.javafx.pane;
+
+/**
+ * A card of a {@link CardPane} which could save and restore its view state.
+ * <p>
+ * When a card constructed from a supplier is evicted from the card cache of a
+ * {@link CardPane}, its node is disposed. If the node implements this
+ * interface, its view state (e.g., the scroll positions, the selections, or
+ * the caret position) is saved by {@link #saveState()} before disposing, and
+ * is restored to the newly constructed node by {@link #restoreState(Object)}
+ * when the card is displayed again. The saved state should be small, and
+ * should not reference the disposed node.
+ *
+ * @author Haixing Hu
+ */
+public interface StatefulCard {
+
+  /**
+   * Saves the view state of this card.
+   *
+   * @return the view state of this card, which will be passed to the
+   *         {@link #restoreState(Object)} method of the recreated card; or
+   *         {@code null} if there is nothing to be restored.
+   */
+  Object saveState();
+
+  /**
+   * Restores the view state of this card.
+   *
+   * @param state
+   *          the view state returned by the {@link #saveState()} method of the
+   *          disposed card, which is never {@code null}.
+   */
+  void restoreState(Object state);
+}
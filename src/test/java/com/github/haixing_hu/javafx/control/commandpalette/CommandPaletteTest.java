@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.haixing_hu.javafx.control.commandpalette;
+
+import javafx.application.Application;
+import javafx.event.ActionEvent;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import com.github.haixing_hu.javafx.action.Action;
+import com.github.haixing_hu.javafx.action.ActionManager;
+
+/**
+ * Sample application for testing the {@link CommandPalette} control.
+ *
+ * @author Haixing Hu
+ */
+public class CommandPaletteTest extends Application {
+
+  private static final String[] VERBS = { "Open", "Close", "Save", "Export",
+      "Import", "Find", "Replace", "Toggle", "Show", "Hide" };
+
+  private static final String[] NOUNS = { "File", "Project", "Editor",
+      "Terminal", "Console", "Outline", "Breakpoint", "Bookmark", "Selection",
+      "Workspace" };
+
+  private static final int COUNT = 10000;
+
+  public static void main(String[] args) {
+    launch(args);
+  }
+
+  @Override
+  public void start(Stage primaryStage) throws Exception {
+    final Label status = new Label("Press Shortcut+Shift+P to search commands.");
+    final ActionManager manager = new ActionManager();
+    for (int i = 0; i < COUNT; ++i) {
+      final String text = VERBS[i % VERBS.length] + " "
+          + NOUNS[(i / VERBS.length) % NOUNS.length] + " " + i;
+      final Action action = new Action("command." + i) {
+        @Override
+        public void handle(ActionEvent event) {
+          status.setText("Executed: " + getText());
+        }
+      };
+      action.setText(text);
+      manager.add(action);
+    }
+
+    final CommandPalette palette = new CommandPalette(manager);
+    final VBox root = new VBox();
+    root.setSpacing(20);
+    root.setPadding(new Insets(20));
+    root.getChildren().addAll(palette, status);
+
+    final Scene scene = new Scene(root, 400, 110);
+    palette.installAccelerator(scene, CommandPalette.DEFAULT_ACCELERATOR);
+    primaryStage.setTitle("CommandPalette Sample");
+    primaryStage.setScene(scene);
+    primaryStage.show();
+  }
+}
@@ -14,12 +14,15 @@
 
 package com.github.haixing_hu.javafx.pane;
 
+import java.time.LocalTime;
+
 import javafx.application.Application;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
 import javafx.scene.control.ToolBar;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Priority;
@@ -38,6 +41,7 @@ public class CardPaneTest extends Application {
   }
 
   private static final int CARD_COUNT = 3;
+  private static final int LAZY_CARD_COUNT = 3;
 
   @Override
   public void start(Stage primaryStage) throws Exception {
@@ -49,12 +53,20 @@ public class CardPaneTest extends Application {
       child.setStyle("-fx-background-color:white");
       pane.addCard(child);
     }
+    for (int i = CARD_COUNT; i < CARD_COUNT + LAZY_CARD_COUNT; ++i) {
+      final int index = i;
+      pane.addCard(() -> new LazyCard(index));
+    }
+    pane.setPrefetch(true);
+    pane.setCacheLimit(2);
+    pane.setKeepAliveCount(1);
+    pane.setTransition(CardPane.Transition.SLIDE);
     pane.setStyle("-fx-background-color: blue");
     VBox.setVgrow(pane, Priority.ALWAYS);
     root.getChildren().add(pane);
 
     final ToolBar toolBar1 = new ToolBar();
-    for (int i = 0; i < CARD_COUNT; ++i) {
+    for (int i = 0; i < pane.size(); ++i) {
       final Button button = new Button("Show card " + i);
       final int index = i;
       button.setOnAction(new EventHandler<ActionEvent>() {
@@ -112,4 +124,32 @@ public class CardPaneTest extends Application {
     primaryStage.show();
   }
 
+  /**
+   * A lazily constructed card which keeps the text typed by the user when it
+   * is evicted from the card cache.
+   */
+  private static final class LazyCard extends VBox implements StatefulCard {
+    private final TextField field;
+
+    LazyCard(int index) {
+      field = new TextField();
+      field.setPromptText("Type something and switch to other cards");
+      //  shows when the card was constructed, so that the lazy construction
+      //  and the reconstruction after eviction can be observed
+      getChildren().addAll(new Label("Lazy card " + index + " (constructed at "
+          + LocalTime.now().withNano(0) + ")"), field);
+      setStyle("-fx-background-color:lightyellow");
+    }
+
+    @Override
+    public Object saveState() {
+      return field.getText();
+    }
+
+    @Override
+    public void restoreState(Object state) {
+      field.setText((String) state);
+    }
+  }
+
 }
@@ -0,0 +1,90 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Haixing Hu (https://github.com/Haixing-Hu/) - Initial implementation and API.
+ *
+ ******************************************************************************/
+
+package com.github.haixing_hu.javafx.pane;
+
+import java.lang.management.ManagementFactory;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+
+/**
+ * Benchmark of the layout pass of the {@link FillPane}.
+ * <p>
+ * The benchmark resizes a set of {@link FillPane}s continuously and reports
+ * the time and the number of bytes allocated per layout pass, measured by the
+ * {@link com.sun.management.ThreadMXBean} of the JavaFX application thread.
+ *
+ * @author Haixing Hu
+ */
+public class FillPaneBenchmark extends Application {
+
+  public static void main(String[] args) {
+    launch(args);
+  }
+
+  private static final int PANE_COUNT = 300;
+
+  private static final int CHILDREN_COUNT = 8;
+
+  private static final int WARMUP_ITERATIONS = 2000;
+
+  private static final int ITERATIONS = 10000;
+
+  @Override
+  public void start(Stage primaryStage) throws Exception {
+    final FillPane[] panes = new FillPane[PANE_COUNT];
+    for (int i = 0; i < PANE_COUNT; ++i) {
+      final FillPane pane = new FillPane(i % 2 == 0 ? Orientation.HORIZONTAL
+                                                    : Orientation.VERTICAL);
+      for (int j = 0; j < CHILDREN_COUNT; ++j) {
+        final Region child = new Region();
+        child.setPrefSize(20 + j, 10 + j);
+        pane.getChildren().add(child);
+      }
+      panes[i] = pane;
+    }
+    run(panes, WARMUP_ITERATIONS);
+    final com.sun.management.ThreadMXBean bean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long threadId = Thread.currentThread().getId();
+    final long bytes = bean.getThreadAllocatedBytes(threadId);
+    final long start = System.nanoTime();
+    run(panes, ITERATIONS);
+    final long time = System.nanoTime() - start;
+    final long allocated = bean.getThreadAllocatedBytes(threadId) - bytes;
+    final long passes = (long) PANE_COUNT * ITERATIONS;
+    System.out.println("Layout passes: " + passes);
+    System.out.println("Time per layout: " + ((double) time / passes) + " ns");
+    System.out.println("Allocated bytes per layout: "
+        + ((double) allocated / passes));
+    Platform.exit();
+  }
+
+  private static void run(FillPane[] panes, int iterations) {
+    for (int i = 0; i < iterations; ++i) {
+      final double width = 200 + (i % 100);
+      final double height = 100 + (i % 50);
+      for (final FillPane pane : panes) {
+        pane.prefWidth(-1);
+        pane.prefHeight(-1);
+        pane.resize(width, height);
+        pane.layout();
+      }
+    }
+  }
+}
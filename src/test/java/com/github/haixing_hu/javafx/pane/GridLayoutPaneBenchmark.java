@@ -0,0 +1,112 @@
+/******************************************************************************
+ *
+ * Copyright (c) 2014  Haixing Hu
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Haixing Hu (https://github.com/Haixing-Hu/) - Initial implementation and API.
+ *
+ ******************************************************************************/
+
+package com.github.haixing_hu.javafx.pane;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+
+/**
+ * Benchmark of the {@link GridLayoutPane} against the {@link GridPane}.
+ * <p>
+ * The benchmark builds the same large form in both panes, i.e., a label
+ * column and a field column grabbing the excess horizontal space, resizes the
+ * panes continuously, and reports the time per layout pass.
+ *
+ * @author Haixing Hu
+ */
+public class GridLayoutPaneBenchmark extends Application {
+
+  public static void main(String[] args) {
+    launch(args);
+  }
+
+  private static final int FIELD_COUNT = 500;
+
+  private static final int WARMUP_ITERATIONS = 200;
+
+  private static final int ITERATIONS = 1000;
+
+  @Override
+  public void start(Stage primaryStage) throws Exception {
+    final GridLayoutPane gridLayoutPane = createGridLayoutPane();
+    final GridPane gridPane = createGridPane();
+    run(gridLayoutPane, WARMUP_ITERATIONS);
+    run(gridPane, WARMUP_ITERATIONS);
+    final long gridLayoutPaneTime = run(gridLayoutPane, ITERATIONS);
+    final long gridPaneTime = run(gridPane, ITERATIONS);
+    System.out.println("Fields: " + FIELD_COUNT);
+    System.out.println("GridLayoutPane time per layout: "
+        + (gridLayoutPaneTime / ITERATIONS) + " ns, cache hit rate: "
+        + gridLayoutPane.getCacheHitRate());
+    System.out.println("GridPane time per layout: "
+        + (gridPaneTime / ITERATIONS) + " ns");
+    Platform.exit();
+  }
+
+  private static Region createLabel(int i) {
+    final Region label = new Region();
+    label.setPrefSize(60 + (i % 40), 20);
+    return label;
+  }
+
+  private static Region createField(int i) {
+    final Region field = new Region();
+    field.setPrefSize(150 + (i % 50), 24);
+    return field;
+  }
+
+  private static GridLayoutPane createGridLayoutPane() {
+    final GridLayoutPane pane = new GridLayoutPane(2);
+    for (int i = 0; i < FIELD_COUNT; ++i) {
+      final Region label = createLabel(i);
+      final Region field = createField(i);
+      GridLayoutPane.setConstraint(field, new GridData(GridData.Alignment.FILL,
+          GridData.Alignment.CENTER, true, false));
+      pane.getChildren().addAll(label, field);
+    }
+    return pane;
+  }
+
+  private static GridPane createGridPane() {
+    final GridPane pane = new GridPane();
+    pane.setHgap(5);
+    pane.setVgap(5);
+    final ColumnConstraints labelColumn = new ColumnConstraints();
+    final ColumnConstraints fieldColumn = new ColumnConstraints();
+    fieldColumn.setHgrow(Priority.ALWAYS);
+    fieldColumn.setFillWidth(true);
+    pane.getColumnConstraints().addAll(labelColumn, fieldColumn);
+    for (int i = 0; i < FIELD_COUNT; ++i) {
+      pane.addRow(i, createLabel(i), createField(i));
+    }
+    return pane;
+  }
+
+  private static long run(Pane pane, int iterations) {
+    final long start = System.nanoTime();
+    for (int i = 0; i < iterations; ++i) {
+      final double width = 400 + (i % 200);
+      pane.resize(width, pane.prefHeight(width));
+      pane.layout();
+    }
+    return System.nanoTime() - start;
+  }
+}
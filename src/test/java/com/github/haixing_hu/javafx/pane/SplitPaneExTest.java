@@ -122,6 +122,16 @@ public class SplitPaneExTest extends Application {
         show.setOnAction(new ShowChildAction(pane, i));
         toolBar.getItems().addAll(hide, show);
       }
+      //  the 1st, 3rd, 5th, ... items, i.e., the items of even indexes
+      final int[] alternate = new int[(n + 1) / 2];
+      for (int i = 0; i < alternate.length; ++i) {
+        alternate[i] = i * 2;
+      }
+      final Button hideAlternate = new Button("Hide 1st, 3rd, ...");
+      hideAlternate.setOnAction((e) -> pane.hideItems(alternate));
+      final Button showAlternate = new Button("Show 1st, 3rd, ...");
+      showAlternate.setOnAction((e) -> pane.showItems(alternate));
+      toolBar.getItems().addAll(hideAlternate, showAlternate);
 
       getChildren().addAll(pane, toolBar);
     }